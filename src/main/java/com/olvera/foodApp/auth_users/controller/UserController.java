@@ -3,6 +3,10 @@ package com.olvera.foodApp.auth_users.controller;
 import com.olvera.foodApp.auth_users.dtos.UserDTO;
 import com.olvera.foodApp.auth_users.services.UserService;
 import com.olvera.foodApp.response.Response;
+import com.olvera.foodApp.upload.dtos.ConfirmUploadDTO;
+import com.olvera.foodApp.upload.dtos.PresignRequestDTO;
+import com.olvera.foodApp.upload.dtos.PresignedUploadDTO;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -36,6 +40,20 @@ public class UserController {
         return ResponseEntity.ok(userService.updateOwnAccount(userDTO));
     }
 
+    @PostMapping("/profile-image/presign")
+    public ResponseEntity<Response<PresignedUploadDTO>> presignProfileImage(
+            @RequestBody @Valid PresignRequestDTO presignRequestDTO
+    ) {
+        return ResponseEntity.ok(userService.presignProfileImage(presignRequestDTO));
+    }
+
+    @PutMapping("/profile-image")
+    public ResponseEntity<Response<?>> attachProfileImage(
+            @RequestBody @Valid ConfirmUploadDTO confirmUploadDTO
+    ) {
+        return ResponseEntity.ok(userService.attachProfileImage(confirmUploadDTO.getKey()));
+    }
+
     @DeleteMapping("/deactivate")
     public ResponseEntity<Response<?>> deactivateOwnAccount() {
         return ResponseEntity.ok(userService.deactivateOwnAccount());
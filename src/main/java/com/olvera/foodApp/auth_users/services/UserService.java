@@ -3,19 +3,31 @@ package com.olvera.foodApp.auth_users.services;
 import com.olvera.foodApp.auth_users.dtos.UserDTO;
 import com.olvera.foodApp.auth_users.entity.User;
 import com.olvera.foodApp.response.Response;
+import com.olvera.foodApp.upload.dtos.PresignRequestDTO;
+import com.olvera.foodApp.upload.dtos.PresignedUploadDTO;
 
 import java.util.List;
 
 public interface UserService {
 
+    // may be the principal shared with the auth cache: rely on it for identity (id, roles) only
     User getCurrentLoggedInUser();
 
+    Long getCurrentLoggedInUserId();
+
+    // fresh copy of the row, for reading mutable fields like the address or writing the user
+    User getCurrentLoggedInUserForUpdate();
+
     Response<List<UserDTO>> getAllUsers();
 
     Response<UserDTO> getOwnAccountDetails();
 
     Response<?> updateOwnAccount(UserDTO userDTO);
 
+    Response<PresignedUploadDTO> presignProfileImage(PresignRequestDTO presignRequestDTO);
+
+    Response<?> attachProfileImage(String imageKey);
+
     Response<?> deactivateOwnAccount();
 
 }
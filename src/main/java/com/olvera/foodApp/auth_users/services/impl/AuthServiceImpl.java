@@ -10,12 +10,12 @@ import com.olvera.foodApp.exceptions.BadRequestException;
 import com.olvera.foodApp.exceptions.NotFoundException;
 import com.olvera.foodApp.response.Response;
 import com.olvera.foodApp.role.entity.Role;
-import com.olvera.foodApp.role.repository.RoleRepository;
+import com.olvera.foodApp.role.services.RoleRegistry;
 import com.olvera.foodApp.security.JwtUtils;
+import com.olvera.foodApp.security.PasswordHashingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -28,11 +28,11 @@ public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     private final JwtUtils jwtUtils;
 
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
 
     @Override
     public Response<?> register(RegistrationRequest registrationRequest) {
@@ -47,11 +47,11 @@ public class AuthServiceImpl implements AuthService {
 
         if (registrationRequest.getRoles() != null && !registrationRequest.getRoles().isEmpty()) {
             userRoles = registrationRequest.getRoles().stream()
-                    .map(roleName -> roleRepository.findByName(roleName.toUpperCase())
+                    .map(roleName -> roleRegistry.findByName(roleName.toUpperCase())
                             .orElseThrow(() -> new NotFoundException("Role with name: " + roleName + " Not found")))
                     .toList();
         } else {
-            Role defaultRole = roleRepository.findByName("CUSTOMER")
+            Role defaultRole = roleRegistry.findByName("CUSTOMER")
                     .orElseThrow(() -> new NotFoundException("Default CUSTOMER role not found"));
 
             userRoles = List.of(defaultRole);
@@ -62,7 +62,7 @@ public class AuthServiceImpl implements AuthService {
                 .email(registrationRequest.getEmail())
                 .phoneNumber(registrationRequest.getPhoneNumber())
                 .address(registrationRequest.getAddress())
-                .password(passwordEncoder.encode(registrationRequest.getPassword()))
+                .password(passwordHashingService.encode(registrationRequest.getPassword()))
                 .roles(userRoles)
                 .isActive(true)
                 .createdAt(LocalDateTime.now())
@@ -91,11 +91,18 @@ public class AuthServiceImpl implements AuthService {
             throw new NotFoundException("Account not active, Please contact customer support");
         }
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(loginRequest.getPassword(), user.getPassword())) {
             throw new BadRequestException("Invalid Password");
         }
 
-        String token = jwtUtils.generateToken(user.getEmail());
+        // upgrade hashes created with a different work factor while we have the raw password
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(loginRequest.getPassword()));
+            userRepository.save(user);
+            log.info("Password hash upgraded for user {}", user.getId());
+        }
+
+        String token = jwtUtils.generateToken(user);
 
         List<String> roleNames = user.getRoles().stream()
                 .map(Role::getName)
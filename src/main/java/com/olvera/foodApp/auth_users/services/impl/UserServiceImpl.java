@@ -5,24 +5,35 @@ import com.olvera.foodApp.auth_users.entity.User;
 import com.olvera.foodApp.auth_users.repository.UserRepository;
 import com.olvera.foodApp.auth_users.services.UserService;
 import com.olvera.foodApp.aws.AwsS3Service;
+import com.olvera.foodApp.aws.S3DeletionQueue;
 import com.olvera.foodApp.email_notification.dtos.NotificationDTO;
 import com.olvera.foodApp.email_notification.services.NotificationService;
 import com.olvera.foodApp.exceptions.BadRequestException;
 import com.olvera.foodApp.exceptions.NotFoundException;
 import com.olvera.foodApp.response.Response;
+import com.olvera.foodApp.security.AuthUser;
+import com.olvera.foodApp.security.AuthUserCache;
+import com.olvera.foodApp.security.PasswordHashingService;
+import com.olvera.foodApp.security.TokenRevocationRegistry;
+import com.olvera.foodApp.upload.dtos.PresignRequestDTO;
+import com.olvera.foodApp.upload.dtos.PresignedUploadDTO;
+import com.olvera.foodApp.upload.services.UploadService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.TypeToken;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.net.URL;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
@@ -30,9 +41,13 @@ import java.util.UUID;
 @Slf4j
 public class UserServiceImpl implements UserService {
 
+    private static final String PROFILE_IMAGE_PREFIX = "profile/";
+
+    private static final String CURRENT_USER_ATTRIBUTE = UserServiceImpl.class.getName() + ".CURRENT_USER";
+
     private final UserRepository userRepository;
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
 
     private final ModelMapper modelMapper;
 
@@ -40,11 +55,68 @@ public class UserServiceImpl implements UserService {
 
     private final AwsS3Service awsS3Service;
 
+    private final AuthUserCache authUserCache;
+
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+
+    private final UploadService uploadService;
+
+    private final S3DeletionQueue s3DeletionQueue;
+
     @Override
     public User getCurrentLoggedInUser() {
 
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return userRepository.findByEmail(email).orElseThrow(
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        // AuthFilter already resolved the user for this request, reuse it instead of querying again
+        if (authentication != null && authentication.getPrincipal() instanceof AuthUser authUser
+                && !authUser.isClaimsOnly()) {
+            return authUser.getUser();
+        }
+
+        // claims-only principals are loaded at most once per request
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null) {
+            Object resolved = requestAttributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (resolved instanceof User user) {
+                return user;
+            }
+        }
+
+        User user;
+        if (authentication != null && authentication.getPrincipal() instanceof AuthUser authUser) {
+            user = userRepository.findById(authUser.getUser().getId()).orElseThrow(
+                    () -> new NotFoundException("User not found")
+            );
+        } else {
+            String email = authentication != null ? authentication.getName() : null;
+            user = userRepository.findByEmail(email).orElseThrow(
+                    () -> new NotFoundException("User not found")
+            );
+        }
+
+        if (requestAttributes != null) {
+            requestAttributes.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    @Override
+    public Long getCurrentLoggedInUserId() {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication != null && authentication.getPrincipal() instanceof AuthUser authUser) {
+            return authUser.getUser().getId();
+        }
+        return getCurrentLoggedInUser().getId();
+    }
+
+    // The principal is shared with the auth cache and another node may have changed the row since,
+    // so anything that reads or writes the mutable fields works on a fresh copy
+    @Override
+    public User getCurrentLoggedInUserForUpdate() {
+        return userRepository.findById(getCurrentLoggedInUserId()).orElseThrow(
                 () -> new NotFoundException("User not found")
         );
     }
@@ -71,7 +143,7 @@ public class UserServiceImpl implements UserService {
 
         log.info("INSIDE getOwnAccountDetails()");
 
-        User user = getCurrentLoggedInUser();
+        User user = getCurrentLoggedInUserForUpdate();
 
         UserDTO userDTO = modelMapper.map(user, UserDTO.class);
 
@@ -87,22 +159,18 @@ public class UserServiceImpl implements UserService {
 
         log.info("INSIDE updateOwnAccount()");
 
-        User user = getCurrentLoggedInUser();
+        User user = getCurrentLoggedInUserForUpdate();
+
+        String previousEmail = user.getEmail();
 
         String profileUrl = user.getProfileUrl();
 
         MultipartFile imageFile = userDTO.getImageFile();
 
         if (imageFile != null && !imageFile.isEmpty()) {
-            if (profileUrl != null && !profileUrl.isEmpty()) {
-                String keyName = profileUrl.substring(profileUrl.lastIndexOf("/") + 1);
-                awsS3Service.deleteFile("profile/" + keyName);
-                log.info("Deleted old profile image from s3");
-            }
-
             // upload new image
             String imageName = UUID.randomUUID().toString() + "_" + imageFile.getOriginalFilename();
-            URL newImageUrl = awsS3Service.uploadFile("profile/" + imageName, imageFile);
+            URL newImageUrl = awsS3Service.uploadFile(PROFILE_IMAGE_PREFIX + imageName, imageFile);
             user.setProfileUrl(newImageUrl.toString());
         }
 
@@ -110,7 +178,7 @@ public class UserServiceImpl implements UserService {
         if (userDTO.getName() != null) user.setName(userDTO.getName());
         if (userDTO.getPhoneNumber() != null) user.setPhoneNumber(userDTO.getPhoneNumber());
         if (userDTO.getAddress() != null) user.setAddress(userDTO.getAddress());
-        if (userDTO.getPassword() != null) user.setPassword(passwordEncoder.encode(userDTO.getPassword()));
+        if (userDTO.getPassword() != null) user.setPassword(passwordHashingService.encode(userDTO.getPassword()));
 
         if (userDTO.getEmail() != null && !userDTO.getEmail().equals(user.getEmail())) {
             if (userRepository.existsByEmail(user.getEmail())) {
@@ -123,6 +191,13 @@ public class UserServiceImpl implements UserService {
         // save the user
         userRepository.save(user);
 
+        if (!Objects.equals(profileUrl, user.getProfileUrl())) {
+            deleteProfileImage(profileUrl);
+        }
+
+        authUserCache.invalidate(previousEmail);
+        authUserCache.invalidate(user.getEmail());
+
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
                 .message("Account updated successfully")
@@ -130,17 +205,69 @@ public class UserServiceImpl implements UserService {
 
     }
 
+    @Override
+    public Response<PresignedUploadDTO> presignProfileImage(PresignRequestDTO presignRequestDTO) {
+
+        log.info("INSIDE presignProfileImage()");
+
+        return Response.<PresignedUploadDTO>builder()
+                .statusCode(HttpStatus.OK.value())
+                .message("Upload URL issued")
+                .data(uploadService.presignImageUpload(profileImagePrefix(getCurrentLoggedInUserId()), presignRequestDTO))
+                .build();
+    }
+
+    @Override
+    public Response<?> attachProfileImage(String imageKey) {
+
+        log.info("INSIDE attachProfileImage()");
+
+        User user = getCurrentLoggedInUserForUpdate();
+
+        // the user id in the prefix stops one user from claiming an image uploaded by another
+        String imageUrl = uploadService.verifyUploadedImage(profileImagePrefix(user.getId()), imageKey);
+
+        String previousProfileUrl = user.getProfileUrl();
+        user.setProfileUrl(imageUrl);
+
+        userRepository.save(user);
+
+        deleteProfileImage(previousProfileUrl);
+
+        authUserCache.invalidate(user.getEmail());
+
+        return Response.builder()
+                .statusCode(HttpStatus.OK.value())
+                .message("Profile image updated successfully")
+                .build();
+    }
+
+    private static String profileImagePrefix(Long userId) {
+        return PROFILE_IMAGE_PREFIX + userId + "_";
+    }
+
+    private void deleteProfileImage(String profileUrl) {
+        if (profileUrl != null && !profileUrl.isEmpty()) {
+            String keyName = profileUrl.substring(profileUrl.lastIndexOf("/") + 1);
+            s3DeletionQueue.enqueue(PROFILE_IMAGE_PREFIX + keyName);
+            log.info("Queued deletion of old profile image");
+        }
+    }
+
     @Override
     public Response<?> deactivateOwnAccount() {
 
         log.info("INSIDE deactivateOwnAccount()");
 
-        User user = getCurrentLoggedInUser();
+        User user = getCurrentLoggedInUserForUpdate();
 
         // deactivate the user
         user.setActive(false);
         userRepository.save(user);
 
+        authUserCache.invalidate(user.getEmail());
+        tokenRevocationRegistry.revoke(user.getId());
+
         // SEND EMAIL AFTER DEACTIVATION
         NotificationDTO notificationDTO = NotificationDTO.builder()
                 .recipient(user.getEmail())
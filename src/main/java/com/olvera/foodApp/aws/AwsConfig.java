@@ -7,6 +7,7 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @Configuration
 public class AwsConfig {
@@ -33,4 +34,12 @@ public class AwsConfig {
                 .build();
     }
 
+    @Bean(destroyMethod = "close")
+    public S3Presigner s3Presigner(StaticCredentialsProvider staticCredentialsProvider) {
+        return S3Presigner.builder()
+                .region(Region.of(awsRegion))
+                .credentialsProvider(staticCredentialsProvider)
+                .build();
+    }
+
 }
@@ -1,13 +1,30 @@
 package com.olvera.foodApp.aws;
 
+import com.olvera.foodApp.upload.dtos.PresignedUploadDTO;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.net.URL;
+import java.util.Collection;
+import java.util.Map;
 
 public interface AwsS3Service {
 
     URL uploadFile(String keyName, MultipartFile file);
 
+    URL uploadFile(String keyName, byte[] content, String contentType);
+
+    InputStream downloadFile(String keyName);
+
     void deleteFile(String keyName);
 
+    // deletes up to 1000 keys in one call, returns the error message of each key that failed
+    Map<String, String> deleteFiles(Collection<String> keyNames);
+
+    PresignedUploadDTO presignUpload(String keyName, String contentType, long contentLength);
+
+    boolean exists(String keyName);
+
+    URL getUrl(String keyName);
+
 }
@@ -1,44 +1,236 @@
 package com.olvera.foodApp.aws;
 
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import com.olvera.foodApp.upload.dtos.PresignedUploadDTO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.Delete;
 import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
 import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 @Service
+@ConditionalOnProperty(name = "aws.s3.mode", havingValue = "s3", matchIfMissing = true)
 @Slf4j
-@RequiredArgsConstructor
 public class AwsS3ServiceImpl implements AwsS3Service {
 
+    // S3 rejects multipart parts smaller than 5 MB (except the last one)
+    private static final long MIN_PART_SIZE = DataSize.ofMegabytes(5).toBytes();
+
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+
     private final S3Client s3Client;
 
+    private final S3Presigner s3Presigner;
+
+    private final Duration presignTtl;
+
+    private final ExecutorService partUploadExecutor;
+
+    private final long multipartThreshold;
+
+    private final int partSize;
+
+    private final int parallelParts;
+
     @Value("${aws.s3.bucket}")
     private String bucketName;
 
+    public AwsS3ServiceImpl(
+            S3Client s3Client,
+            S3Presigner s3Presigner,
+            @Value("${aws.s3.presign.ttl:10m}") Duration presignTtl,
+            @Value("${aws.s3.upload.multipart-threshold:16MB}") DataSize multipartThreshold,
+            @Value("${aws.s3.upload.part-size:8MB}") DataSize partSize,
+            @Value("${aws.s3.upload.parallel-parts:4}") int parallelParts,
+            @Value("${aws.s3.upload.threads:8}") int threads) {
+
+        this.s3Client = s3Client;
+        this.s3Presigner = s3Presigner;
+        this.presignTtl = presignTtl;
+        this.multipartThreshold = multipartThreshold.toBytes();
+        this.partSize = (int) Math.max(MIN_PART_SIZE, partSize.toBytes());
+        this.parallelParts = Math.max(1, parallelParts);
+        this.partUploadExecutor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("s3-upload-"));
+    }
+
     @Override
     public URL uploadFile(String keyName, MultipartFile file) {
 
         log.info("Inside AWSS3Service uploadFile()");
 
+        try (InputStream inputStream = file.getInputStream()) {
+
+            // stream straight from the multipart part, the file is never held on the heap as a whole
+            if (file.getSize() < multipartThreshold) {
+                PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(keyName)
+                        .contentType(file.getContentType())
+                        .contentLength(file.getSize())
+                        .build();
+
+                s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(inputStream, file.getSize()));
+            } else {
+                multipartUpload(keyName, file.getContentType(), inputStream);
+            }
+
+            return getUrl(keyName);
+        } catch (Exception e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public URL uploadFile(String keyName, byte[] content, String contentType) {
+
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(keyName)
+                .contentType(contentType)
+                .contentLength((long) content.length)
+                .build();
+
+        s3Client.putObject(putObjectRequest, RequestBody.fromBytes(content));
+        return getUrl(keyName);
+    }
+
+    @Override
+    public InputStream downloadFile(String keyName) {
+        return s3Client.getObject(GetObjectRequest.builder().bucket(bucketName).key(keyName).build());
+    }
+
+    /**
+     * Reads the stream one part at a time and uploads up to {@code parallelParts} parts
+     * concurrently, so at most that many part buffers are alive for a single upload.
+     */
+    private void multipartUpload(String keyName, String contentType, InputStream inputStream) throws IOException {
+
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                        .bucket(bucketName)
+                        .key(keyName)
+                        .contentType(contentType)
+                        .build())
+                .uploadId();
+
+        Semaphore inFlight = new Semaphore(parallelParts);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+
         try {
+            int partNumber = 1;
+            while (true) {
+                inFlight.acquire();
+
+                // stop reading as soon as a part failed, the join below rethrows its error
+                if (parts.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    break;
+                }
+
+                byte[] buffer = new byte[partSize];
+                int read = inputStream.readNBytes(buffer, 0, partSize);
+                if (read == 0 && partNumber > 1) {
+                    inFlight.release();
+                    break;
+                }
+
+                int number = partNumber++;
+                parts.add(CompletableFuture
+                        .supplyAsync(() -> uploadPart(keyName, uploadId, number, buffer, read), partUploadExecutor)
+                        .whenComplete((part, ex) -> inFlight.release()));
+
+                if (read < partSize) {
+                    break;
+                }
+            }
 
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+            List<CompletedPart> completedParts = parts.stream()
+                    .map(CompletableFuture::join)
+                    .sorted(Comparator.comparing(CompletedPart::partNumber))
+                    .toList();
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
                     .bucket(bucketName)
                     .key(keyName)
-                    .contentType(file.getContentType())
-                    .build();
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
 
-            s3Client.putObject(putObjectRequest, RequestBody.fromBytes(file.getBytes()));
-            return s3Client.utilities().getUrl(builder -> builder.bucket(bucketName).key(keyName));
-        } catch (Exception e) {
-            throw new RuntimeException(e.getMessage());
+            log.info("Multipart upload of {} completed in {} parts", keyName, completedParts.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abortMultipartUpload(keyName, uploadId, parts);
+            throw new IOException("Upload of " + keyName + " was interrupted", e);
+        } catch (RuntimeException | IOException e) {
+            abortMultipartUpload(keyName, uploadId, parts);
+            throw e;
+        }
+    }
+
+    private CompletedPart uploadPart(String keyName, String uploadId, int partNumber, byte[] buffer, int length) {
+
+        String eTag = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucketName)
+                                .key(keyName)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) length)
+                                .build(),
+                        // wraps the part buffer, fromBytes would copy it
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length))
+                .eTag();
+
+        return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+    }
+
+    private void abortMultipartUpload(String keyName, String uploadId, List<CompletableFuture<CompletedPart>> parts) {
+
+        parts.forEach(part -> part.cancel(true));
+
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(keyName)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (RuntimeException e) {
+            log.warn("Could not abort multipart upload {} of {}: {}", uploadId, keyName, e.getMessage());
         }
     }
 
@@ -54,4 +246,74 @@ public class AwsS3ServiceImpl implements AwsS3Service {
 
         log.info("File {} deleted from bucket {}", keyName, bucketName);
     }
+
+    @Override
+    public Map<String, String> deleteFiles(Collection<String> keyNames) {
+
+        if (keyNames.isEmpty()) {
+            return Map.of();
+        }
+
+        if (keyNames.size() > MAX_KEYS_PER_DELETE) {
+            throw new IllegalArgumentException("At most " + MAX_KEYS_PER_DELETE + " keys can be deleted per call");
+        }
+
+        List<ObjectIdentifier> objects = keyNames.stream()
+                .map(keyName -> ObjectIdentifier.builder().key(keyName).build())
+                .toList();
+
+        // quiet mode only reports the keys that failed
+        DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().objects(objects).quiet(true).build())
+                .build());
+
+        Map<String, String> errors = new HashMap<>();
+        response.errors().forEach(error -> errors.put(error.key(), error.code() + ": " + error.message()));
+
+        log.info("Deleted {} files from bucket {} ({} failed)", keyNames.size() - errors.size(), bucketName, errors.size());
+
+        return errors;
+    }
+
+    @Override
+    public PresignedUploadDTO presignUpload(String keyName, String contentType, long contentLength) {
+
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(keyName)
+                .contentType(contentType)
+                .contentLength(contentLength)
+                .build();
+
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(PutObjectPresignRequest.builder()
+                .signatureDuration(presignTtl)
+                .putObjectRequest(putObjectRequest)
+                .build());
+
+        return new PresignedUploadDTO(keyName, presigned.url().toString(), presigned.expiration(), presigned.signedHeaders());
+    }
+
+    @Override
+    public boolean exists(String keyName) {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder().bucket(bucketName).key(keyName).build());
+            return true;
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public URL getUrl(String keyName) {
+        return s3Client.utilities().getUrl(builder -> builder.bucket(bucketName).key(keyName));
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        partUploadExecutor.shutdown();
+    }
 }
@@ -0,0 +1,129 @@
+package com.olvera.foodApp.aws;
+
+import com.olvera.foodApp.exceptions.BadRequestException;
+import com.olvera.foodApp.upload.dtos.PresignedUploadDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+// Stand-in for S3 when aws.s3.mode=local (tests, local development): objects are files under a root directory
+@Service
+@ConditionalOnProperty(name = "aws.s3.mode", havingValue = "local")
+@Slf4j
+public class LocalFileSystemS3Service implements AwsS3Service {
+
+    private final Path root;
+
+    public LocalFileSystemS3Service(@Value("${aws.s3.local.root:${java.io.tmpdir}/foodapp-s3}") String root) {
+        this.root = Path.of(root).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public URL uploadFile(String keyName, MultipartFile file) {
+
+        log.info("Inside LocalFileSystemS3Service uploadFile()");
+
+        Path target = resolve(keyName);
+
+        try (InputStream inputStream = file.getInputStream()) {
+            Files.createDirectories(target.getParent());
+            Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING);
+            return toUrl(target);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public URL uploadFile(String keyName, byte[] content, String contentType) {
+
+        Path target = resolve(keyName);
+
+        try {
+            Files.createDirectories(target.getParent());
+            Files.write(target, content);
+            return toUrl(target);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public InputStream downloadFile(String keyName) {
+        try {
+            return Files.newInputStream(resolve(keyName));
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+    }
+
+    @Override
+    public void deleteFile(String keyName) {
+
+        try {
+            Files.deleteIfExists(resolve(keyName));
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+
+        log.info("File {} deleted from {}", keyName, root);
+    }
+
+    @Override
+    public Map<String, String> deleteFiles(Collection<String> keyNames) {
+
+        Map<String, String> errors = new HashMap<>();
+        for (String keyName : keyNames) {
+            try {
+                Files.deleteIfExists(resolve(keyName));
+            } catch (IOException | RuntimeException e) {
+                errors.put(keyName, e.getMessage());
+            }
+        }
+        return errors;
+    }
+
+    @Override
+    public PresignedUploadDTO presignUpload(String keyName, String contentType, long contentLength) {
+        throw new BadRequestException("Direct uploads are not available on this server");
+    }
+
+    @Override
+    public boolean exists(String keyName) {
+        return Files.isRegularFile(resolve(keyName));
+    }
+
+    @Override
+    public URL getUrl(String keyName) {
+        return toUrl(resolve(keyName));
+    }
+
+    private Path resolve(String keyName) {
+        Path target = root.resolve(keyName).normalize();
+        if (!target.startsWith(root)) {
+            throw new IllegalArgumentException("Invalid object key: " + keyName);
+        }
+        return target;
+    }
+
+    private static URL toUrl(Path path) {
+        try {
+            return path.toUri().toURL();
+        } catch (MalformedURLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
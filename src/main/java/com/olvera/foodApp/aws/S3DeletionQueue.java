@@ -0,0 +1,135 @@
+package com.olvera.foodApp.aws;
+
+import com.olvera.foodApp.aws.entity.PendingS3Deletion;
+import com.olvera.foodApp.aws.repository.PendingS3DeletionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Durable queue of S3 objects to delete. Requests only insert a row; a background worker drains
+ * the table with batched DeleteObjects calls and retries failures with exponential backoff.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class S3DeletionQueue {
+
+    // DeleteObjects accepts at most 1000 keys per call
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final PendingS3DeletionRepository pendingS3DeletionRepository;
+
+    private final AwsS3Service awsS3Service;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${aws.s3.deletions.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${aws.s3.deletions.initial-backoff:30s}")
+    private Duration initialBackoff;
+
+    @Value("${aws.s3.deletions.max-backoff:1h}")
+    private Duration maxBackoff;
+
+    public void enqueue(String... keyNames) {
+        enqueue(Arrays.asList(keyNames));
+    }
+
+    public void enqueue(List<String> keyNames) {
+
+        LocalDateTime now = LocalDateTime.now();
+
+        List<PendingS3Deletion> deletions = keyNames.stream()
+                .filter(Objects::nonNull)
+                .map(keyName -> PendingS3Deletion.builder()
+                        .objectKey(keyName)
+                        .createdAt(now)
+                        .nextAttemptAt(now)
+                        .build())
+                .toList();
+
+        pendingS3DeletionRepository.saveAll(deletions);
+    }
+
+    @Scheduled(fixedDelayString = "${aws.s3.deletions.drain-interval:10000}")
+    public void drain() {
+
+        int limit = Math.min(Math.max(batchSize, 1), MAX_BATCH_SIZE);
+
+        // keep going while full batches come back, a short batch means the backlog is drained
+        Integer claimed;
+        do {
+            claimed = transactionTemplate.execute(status -> drainBatch(limit));
+        } while (claimed != null && claimed == limit);
+    }
+
+    // runs in one transaction: the claimed rows stay locked while S3 is called
+    private int drainBatch(int limit) {
+
+        LocalDateTime now = LocalDateTime.now();
+        List<PendingS3Deletion> batch = pendingS3DeletionRepository.claimDue(now, limit);
+
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, String> errors;
+        try {
+            errors = awsS3Service.deleteFiles(batch.stream().map(PendingS3Deletion::getObjectKey).distinct().toList());
+        } catch (RuntimeException e) {
+            log.warn("S3 batch delete of {} keys failed: {}", batch.size(), e.getMessage());
+            batch.forEach(deletion -> scheduleRetry(deletion, e.getMessage(), now));
+            pendingS3DeletionRepository.saveAll(batch);
+            return batch.size();
+        }
+
+        List<PendingS3Deletion> done = new ArrayList<>();
+        List<PendingS3Deletion> failed = new ArrayList<>();
+        for (PendingS3Deletion deletion : batch) {
+            String error = errors.get(deletion.getObjectKey());
+            if (error == null) {
+                done.add(deletion);
+            } else {
+                scheduleRetry(deletion, error, now);
+                failed.add(deletion);
+            }
+        }
+
+        pendingS3DeletionRepository.deleteAllInBatch(done);
+        pendingS3DeletionRepository.saveAll(failed);
+
+        if (!failed.isEmpty()) {
+            log.warn("{} S3 deletions failed and will be retried", failed.size());
+        }
+
+        return batch.size();
+    }
+
+    private void scheduleRetry(PendingS3Deletion deletion, String error, LocalDateTime now) {
+
+        int attempts = deletion.getAttempts() + 1;
+
+        // 30s, 1m, 2m, ... capped at maxBackoff
+        long backoffMillis = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        Duration backoff = Duration.ofMillis(Math.min(backoffMillis, maxBackoff.toMillis()));
+
+        deletion.setAttempts(attempts);
+        deletion.setNextAttemptAt(now.plus(backoff));
+        deletion.setLastError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+    }
+}
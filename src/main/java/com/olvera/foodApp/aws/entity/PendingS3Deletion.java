@@ -0,0 +1,37 @@
+package com.olvera.foodApp.aws.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Data
+@Table(name = "pending_s3_deletions", indexes = {
+        @Index(name = "idx_pending_s3_deletions_next_attempt_at", columnList = "next_attempt_at")
+})
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PendingS3Deletion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "object_key", nullable = false, length = 1024)
+    private String objectKey;
+
+    private LocalDateTime createdAt;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+}
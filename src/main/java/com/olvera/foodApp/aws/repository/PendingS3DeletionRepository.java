@@ -0,0 +1,18 @@
+package com.olvera.foodApp.aws.repository;
+
+import com.olvera.foodApp.aws.entity.PendingS3Deletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface PendingS3DeletionRepository extends JpaRepository<PendingS3Deletion, Long> {
+
+    // rows claimed by another node's worker are skipped instead of waited on
+    @Query(value = "SELECT * FROM pending_s3_deletions WHERE next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PendingS3Deletion> claimDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+}
@@ -1,8 +1,11 @@
 package com.olvera.foodApp.cart.controller;
 
 import com.olvera.foodApp.cart.dtos.CartDTO;
+import com.olvera.foodApp.cart.dtos.CartSummaryDTO;
+import com.olvera.foodApp.cart.dtos.CartUpdateDTO;
 import com.olvera.foodApp.cart.services.CartService;
 import com.olvera.foodApp.response.Response;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -42,11 +45,23 @@ public class CartController {
         return ResponseEntity.ok(cartService.removeItem(cartItemId));
     }
 
+    @PatchMapping
+    public ResponseEntity<Response<CartDTO>> updateCart(
+            @RequestBody @Valid CartUpdateDTO cartUpdateDTO
+    ) {
+        return ResponseEntity.ok(cartService.updateCart(cartUpdateDTO));
+    }
+
     @GetMapping
     public ResponseEntity<Response<CartDTO>> getShoppingCart() {
         return ResponseEntity.ok(cartService.getShoppingCart());
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<Response<CartSummaryDTO>> getCartSummary() {
+        return ResponseEntity.ok(cartService.getCartSummary());
+    }
+
     @DeleteMapping
     public ResponseEntity<Response<?>> clearShoppingCart() {
         return ResponseEntity.ok(cartService.clearShoppingCart());
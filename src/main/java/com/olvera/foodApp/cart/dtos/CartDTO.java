@@ -21,4 +21,6 @@ public class CartDTO {
     private int quantity;
 
     private BigDecimal totalAmount;
+
+    private Integer itemCount;
 }
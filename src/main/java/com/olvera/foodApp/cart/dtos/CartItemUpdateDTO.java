@@ -0,0 +1,19 @@
+package com.olvera.foodApp.cart.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CartItemUpdateDTO {
+
+    @NotNull(message = "Menu id is required")
+    private Long menuId;
+
+    // the quantity the item should end up with, 0 removes it
+    @Min(value = 0, message = "Quantity cannot be negative")
+    private int quantity;
+
+}
@@ -0,0 +1,22 @@
+package com.olvera.foodApp.cart.dtos;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+public class CartSummaryDTO {
+
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    private int itemCount;
+
+    // used by CartRepository.findSummaryByUserId
+    public CartSummaryDTO(BigDecimal totalAmount, Integer itemCount) {
+        this.totalAmount = totalAmount != null ? totalAmount : BigDecimal.ZERO;
+        this.itemCount = itemCount != null ? itemCount : 0;
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.olvera.foodApp.cart.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CartUpdateDTO {
+
+    @NotEmpty(message = "Items are required")
+    @Size(max = 100, message = "At most 100 items can be updated at once")
+    private List<@Valid CartItemUpdateDTO> items;
+
+}
@@ -7,21 +7,30 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
 @Data
-@Table(name = "carts")
+// one cart per user, CartRepository.insertIfAbsent relies on it (db/one-off/cart-unique-keys.sql)
+@Table(name = "carts", indexes = {
+        @Index(name = "idx_carts_user_id", columnList = "user_id"),
+        @Index(name = "idx_carts_last_modified", columnList = "last_modified")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_carts_user_id", columnNames = "user_id")
+})
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class Cart {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_seq")
+    @SequenceGenerator(name = "cart_seq", sequenceName = "carts_seq", allocationSize = 50)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
@@ -29,4 +38,17 @@ public class Cart {
     private List<CartItem> cartItems;
 
     private String promoCode;
+
+    // maintained by the cart mutations through CartRepository, in the same statement or transaction
+    // as the item change, never by a cart save; CartTotalsChecker repairs any drift
+    @Column(name = "total_amount", columnDefinition = "numeric(38,2) not null default 0", insertable = false, updatable = false)
+    private BigDecimal totalAmount;
+
+    // units across all items, not distinct menus
+    @Column(name = "item_count", columnDefinition = "integer not null default 0", insertable = false, updatable = false)
+    private Integer itemCount;
+
+    // set by the same statements as the totals; AbandonedCartSweeper purges carts idle past the TTL
+    @Column(name = "last_modified", columnDefinition = "timestamp not null default now()", insertable = false, updatable = false)
+    private LocalDateTime lastModified;
 }
@@ -11,14 +11,18 @@ import java.math.BigDecimal;
 
 @Entity
 @Data
-@Table(name = "cart_items")
+// one row per menu, the cart upserts rely on it (db/one-off/cart-unique-keys.sql)
+@Table(name = "cart_items", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cart_items_cart_menu", columnNames = {"cart_id", "menu_id"})
+})
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class CartItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cart_item_seq")
+    @SequenceGenerator(name = "cart_item_seq", sequenceName = "cart_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
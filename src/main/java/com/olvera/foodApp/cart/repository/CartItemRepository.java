@@ -2,9 +2,79 @@ package com.olvera.foodApp.cart.repository;
 
 import com.olvera.foodApp.cart.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
+    // one statement for the whole cart; pending inserts are flushed first, loaded carts are detached
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.id = :cartId")
+    int deleteByCartId(@Param("cartId") Long cartId);
+
+    @Modifying
+    @Query(value = "DELETE FROM cart_items WHERE cart_id IN (:cartIds)", nativeQuery = true)
+    int deleteByCartIdIn(@Param("cartIds") Collection<Long> cartIds);
+
+    // Every cart mutation locks the cart row before any of its item rows (the cart CTE is read
+    // before the item is touched), so concurrent mutations of one cart queue up instead of
+    // deadlocking, and the totals move by the same delta as the item in the same statement.
+
+    // inserts the item at the current menu price or adds to the existing row (uk_cart_items_cart_menu);
+    // 0 when the user has no cart or the menu does not exist.
+    // The id comes straight from cart_items_seq, next to Hibernate's pooled optimizer: the sequence
+    // increments by the allocationSize (50), so each nextval owns the block (value - 50, value] and
+    // the optimizer only hands out ids from blocks it drew itself. This query uses the top of its
+    // block and skips the rest; ids from the two sources cannot collide (SequenceIdSourcesTest).
+    @Modifying
+    @Query(value = "WITH cart AS (SELECT id FROM carts WHERE user_id = :userId FOR UPDATE), " +
+            "item AS (" +
+            "INSERT INTO cart_items (id, cart_id, menu_id, quantity, price_per_unit, sub_total) " +
+            "SELECT nextval('cart_items_seq'), cart.id, m.id, :quantity, m.price, m.price * :quantity " +
+            "FROM cart JOIN menus m ON m.id = :menuId " +
+            "ON CONFLICT (cart_id, menu_id) DO UPDATE " +
+            "SET quantity = cart_items.quantity + EXCLUDED.quantity, " +
+            "sub_total = cart_items.price_per_unit * (cart_items.quantity + EXCLUDED.quantity) " +
+            "RETURNING cart_id, price_per_unit) " +
+            "UPDATE carts SET total_amount = carts.total_amount + item.price_per_unit * :quantity, " +
+            "item_count = carts.item_count + :quantity, last_modified = now() " +
+            "FROM item WHERE carts.id = item.cart_id", nativeQuery = true)
+    int upsertQuantity(@Param("userId") Long userId, @Param("menuId") Long menuId, @Param("quantity") int quantity);
+
+    // 0 when the menu is not in the cart
+    @Modifying
+    @Query(value = "WITH cart AS (SELECT id FROM carts WHERE user_id = :userId FOR UPDATE), " +
+            "item AS (" +
+            "UPDATE cart_items ci " +
+            "SET quantity = ci.quantity + :delta, sub_total = ci.price_per_unit * (ci.quantity + :delta) " +
+            "FROM cart " +
+            "WHERE ci.cart_id = cart.id AND ci.menu_id = :menuId AND ci.quantity > 0 " +
+            "RETURNING ci.cart_id, ci.price_per_unit) " +
+            "UPDATE carts SET total_amount = carts.total_amount + item.price_per_unit * :delta, " +
+            "item_count = carts.item_count + :delta, last_modified = now() " +
+            "FROM item WHERE carts.id = item.cart_id", nativeQuery = true)
+    int addQuantity(@Param("userId") Long userId, @Param("menuId") Long menuId, @Param("delta") int delta);
+
+    // 0 when the item is not in the user's cart
+    @Modifying
+    @Query(value = "WITH cart AS (SELECT id FROM carts WHERE user_id = :userId FOR UPDATE), " +
+            "item AS (" +
+            "DELETE FROM cart_items ci USING cart " +
+            "WHERE ci.cart_id = cart.id AND ci.id = :cartItemId " +
+            "RETURNING ci.cart_id, ci.sub_total, ci.quantity) " +
+            "UPDATE carts SET total_amount = carts.total_amount - item.sub_total, " +
+            "item_count = carts.item_count - item.quantity, last_modified = now() " +
+            "FROM item WHERE carts.id = item.cart_id", nativeQuery = true)
+    int deleteFromCart(@Param("userId") Long userId, @Param("cartItemId") Long cartItemId);
 
+    // follows addQuantity in the same transaction, which still holds the row lock; an item at 0 has a
+    // subtotal of 0, so the totals need no adjustment
+    @Modifying
+    @Query(value = "DELETE FROM cart_items ci USING carts c " +
+            "WHERE c.id = ci.cart_id AND c.user_id = :userId AND ci.menu_id = :menuId AND ci.quantity <= 0", nativeQuery = true)
+    int deleteEmpty(@Param("userId") Long userId, @Param("menuId") Long menuId);
 
 }
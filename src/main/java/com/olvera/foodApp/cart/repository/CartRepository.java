@@ -1,14 +1,84 @@
 package com.olvera.foodApp.cart.repository;
 
+import com.olvera.foodApp.cart.dtos.CartSummaryDTO;
 import com.olvera.foodApp.cart.entity.Cart;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface CartRepository extends JpaRepository<Cart, Long> {
 
     Optional<Cart> findByUser_Id(Long userId);
 
+    // cart, items and their menus in a single select
+    @EntityGraph(attributePaths = {"cartItems", "cartItems.menu"})
+    Optional<Cart> findWithItemsByUser_Id(Long userId);
 
+    @EntityGraph(attributePaths = {"cartItems", "cartItems.menu"})
+    List<Cart> findWithItemsByUser_IdIn(Collection<Long> userIds);
+
+    // blocks item inserts into the cart (their foreign key check) until the caller commits
+    @Query(value = "SELECT id FROM carts WHERE user_id = :userId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockByUserId(@Param("userId") Long userId);
+
+    @Query(value = "SELECT id FROM carts WHERE id = :cartId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("cartId") Long cartId);
+
+    // creates the user's cart; a no-op when a concurrent request created it first (uk_carts_user_id).
+    // Draws its id from carts_seq like CartItemRepository.upsertQuantity, which explains why that
+    // cannot collide with the ids Hibernate allocates
+    @Modifying
+    @Query(value = "INSERT INTO carts (id, user_id) VALUES (nextval('carts_seq'), :userId) " +
+            "ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId);
+
+    // badge and checkout summary, one row
+    @Query("SELECT new com.olvera.foodApp.cart.dtos.CartSummaryDTO(c.totalAmount, c.itemCount) FROM Cart c WHERE c.user.id = :userId")
+    Optional<CartSummaryDTO> findSummaryByUserId(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE carts SET total_amount = total_amount + :amount, item_count = item_count + :count, " +
+            "last_modified = now() WHERE id = :cartId", nativeQuery = true)
+    int addToTotals(@Param("cartId") Long cartId, @Param("amount") BigDecimal amount, @Param("count") int count);
+
+    @Modifying
+    @Query(value = "UPDATE carts SET total_amount = 0, item_count = 0, last_modified = now() WHERE id = :cartId", nativeQuery = true)
+    int resetTotals(@Param("cartId") Long cartId);
+
+    // recount from cart_items; pending item changes are flushed first and loaded carts detached,
+    // their totals would be stale
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE carts c SET " +
+            "total_amount = COALESCE((SELECT SUM(ci.sub_total) FROM cart_items ci WHERE ci.cart_id = c.id), 0), " +
+            "item_count = COALESCE((SELECT SUM(ci.quantity) FROM cart_items ci WHERE ci.cart_id = c.id), 0) " +
+            "WHERE c.id IN (:cartIds)", nativeQuery = true)
+    int recalculateTotals(@Param("cartIds") Collection<Long> cartIds);
+
+    @Modifying
+    @Query(value = "UPDATE carts SET last_modified = now() WHERE id IN (:cartIds)", nativeQuery = true)
+    int touch(@Param("cartIds") Collection<Long> cartIds);
+
+    // oldest idle carts first; rows locked by a cart click in flight are skipped, not waited for.
+    // The cutoff uses the database clock, the same one that writes last_modified
+    @Query(value = "SELECT id FROM carts WHERE last_modified < now() - make_interval(secs => :ttlSeconds) " +
+            "ORDER BY last_modified LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> claimIdleCarts(@Param("ttlSeconds") long ttlSeconds, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM carts WHERE id IN (:cartIds)", nativeQuery = true)
+    int deleteByIdIn(@Param("cartIds") Collection<Long> cartIds);
+
+    @Query(value = "SELECT c.id FROM carts c " +
+            "LEFT JOIN (SELECT cart_id, SUM(sub_total) AS total, SUM(quantity) AS units FROM cart_items GROUP BY cart_id) s " +
+            "ON s.cart_id = c.id " +
+            "WHERE c.total_amount <> COALESCE(s.total, 0) OR c.item_count <> COALESCE(s.units, 0)", nativeQuery = true)
+    List<Long> findCartIdsWithDriftedTotals();
 
 }
@@ -0,0 +1,152 @@
+package com.olvera.foodApp.cart.services;
+
+import com.olvera.foodApp.cart.repository.CartItemRepository;
+import com.olvera.foodApp.cart.repository.CartRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Deletes carts nobody modified for {@code cart.sweeper.ttl}. Works in chunks of one short
+ * transaction each, with a pause in between, so it never holds many row locks or competes with
+ * request traffic for long. Carts a click is modifying right now are skipped (SKIP LOCKED), which
+ * also lets several nodes sweep at the same time without waiting on each other.
+ */
+@Component
+@Slf4j
+public class AbandonedCartSweeper {
+
+    private final CartRepository cartRepository;
+
+    private final CartItemRepository cartItemRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter cartsPurged;
+
+    private final Counter itemsPurged;
+
+    private final Timer runTimer;
+
+    @Value("${cart.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cart.sweeper.ttl:30d}")
+    private Duration ttl;
+
+    @Value("${cart.sweeper.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${cart.sweeper.pause:200ms}")
+    private Duration pause;
+
+    @Value("${cart.sweeper.max-chunks-per-run:200}")
+    private int maxChunksPerRun;
+
+    // rows deleted by one chunk transaction
+    private record Chunk(int carts, int items) {
+    }
+
+    public AbandonedCartSweeper(
+            CartRepository cartRepository,
+            CartItemRepository cartItemRepository,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.transactionTemplate = transactionTemplate;
+
+        this.cartsPurged = Counter.builder("cart.sweeper.purged")
+                .tag("table", "carts")
+                .description("Abandoned cart rows deleted")
+                .register(meterRegistry);
+
+        this.itemsPurged = Counter.builder("cart.sweeper.purged")
+                .tag("table", "cart_items")
+                .description("Cart item rows deleted with abandoned carts")
+                .register(meterRegistry);
+
+        this.runTimer = Timer.builder("cart.sweeper.run")
+                .description("Duration of one abandoned cart sweep")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${cart.sweeper.interval:3600000}",
+            fixedDelayString = "${cart.sweeper.interval:3600000}")
+    public void sweep() {
+
+        if (!enabled) {
+            return;
+        }
+
+        runTimer.record(this::purgeIdleCarts);
+    }
+
+    private void purgeIdleCarts() {
+
+        int limit = Math.max(chunkSize, 1);
+        long totalCarts = 0;
+        long totalItems = 0;
+
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+
+            Chunk purged = transactionTemplate.execute(status -> purgeChunk(limit));
+            if (purged == null || purged.carts() == 0) {
+                break;
+            }
+
+            cartsPurged.increment(purged.carts());
+            itemsPurged.increment(purged.items());
+            totalCarts += purged.carts();
+            totalItems += purged.items();
+
+            // a short chunk means the backlog is gone
+            if (purged.carts() < limit) {
+                break;
+            }
+
+            if (!pause()) {
+                break;
+            }
+        }
+
+        if (totalCarts > 0) {
+            log.info("Purged {} abandoned carts with {} items", totalCarts, totalItems);
+        }
+    }
+
+    // cart rows are locked before their items, the same order as the cart mutations
+    private Chunk purgeChunk(int limit) {
+
+        List<Long> cartIds = cartRepository.claimIdleCarts(ttl.toSeconds(), limit);
+        if (cartIds.isEmpty()) {
+            return new Chunk(0, 0);
+        }
+
+        int items = cartItemRepository.deleteByCartIdIn(cartIds);
+        int carts = cartRepository.deleteByIdIn(cartIds);
+
+        return new Chunk(carts, items);
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            // shutting down, the rest is left to the next run
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.olvera.foodApp.cart.services;
 
 import com.olvera.foodApp.cart.dtos.CartDTO;
+import com.olvera.foodApp.cart.dtos.CartSummaryDTO;
+import com.olvera.foodApp.cart.dtos.CartUpdateDTO;
 import com.olvera.foodApp.response.Response;
 
 public interface CartService {
@@ -13,8 +15,12 @@ public interface CartService {
 
     Response<?> removeItem(Long cartItemid);
 
+    Response<CartDTO> updateCart(CartUpdateDTO cartUpdateDTO);
+
     Response<CartDTO> getShoppingCart();
 
+    Response<CartSummaryDTO> getCartSummary();
+
     Response<?> clearShoppingCart();
 
 }
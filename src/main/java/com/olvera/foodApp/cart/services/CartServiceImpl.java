@@ -1,8 +1,9 @@
 package com.olvera.foodApp.cart.services;
 
-import com.olvera.foodApp.auth_users.entity.User;
 import com.olvera.foodApp.auth_users.services.UserService;
 import com.olvera.foodApp.cart.dtos.CartDTO;
+import com.olvera.foodApp.cart.dtos.CartSummaryDTO;
+import com.olvera.foodApp.cart.dtos.CartUpdateDTO;
 import com.olvera.foodApp.cart.entity.Cart;
 import com.olvera.foodApp.cart.entity.CartItem;
 import com.olvera.foodApp.cart.repository.CartItemRepository;
@@ -20,8 +21,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -39,6 +43,8 @@ public class CartServiceImpl implements CartService {
 
     private final ModelMapper modelMapper;
 
+    private final CartWriteBehindStore cartWriteBehindStore;
+
     @Override
     public Response<?> addItemToCart(CartDTO cartDTO) {
 
@@ -47,45 +53,33 @@ public class CartServiceImpl implements CartService {
         Long menuId = cartDTO.getMenuId();
         int quantity = cartDTO.getQuantity();
 
-        User user = userService.getCurrentLoggedInUser();
-
-        Menu menu = menuRepository.findById(menuId)
-                .orElseThrow(() -> new NotFoundException("Menu Item Not Found"));
-
-        Cart cart = cartRepository.findByUser_Id(user.getId())
-                .orElseGet(() -> {
-                    Cart newCart = new Cart();
-                    newCart.setUser(user);
-                    newCart.setCartItems(new ArrayList<>());
-                    return cartRepository.save(newCart);
-                });
-
-        // Check if the item is already in the cart
-        Optional<CartItem> optionalCartItem = cart.getCartItems().stream()
-                .filter(cartItem -> cartItem.getMenu().getId().equals(menuId))
-                .findFirst();
-
-        // If present, increment item
-        if (optionalCartItem.isPresent()) {
-            CartItem cartItem = optionalCartItem.get();
-            cartItem.setQuantity(cartItem.getQuantity() + quantity);
-            cartItem.setSubTotal(cartItem.getPricePerUnit().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
-            cartItemRepository.save(cartItem);
-        } else {
-            // if not present
-            CartItem newCartItem = CartItem.builder()
-                    .cart(cart)
-                    .menu(menu)
-                    .quantity(quantity)
-                    .pricePerUnit(menu.getPrice())
-                    .subTotal(menu.getPrice().multiply(BigDecimal.valueOf(quantity)))
-                    .build();
+        Long userId = userService.getCurrentLoggedInUserId();
 
-            cart.getCartItems().add(newCartItem);
-            cartItemRepository.save(newCartItem);
+        if (cartWriteBehindStore.isEnabled()) {
+            if (!menuRepository.existsById(menuId)) {
+                throw new NotFoundException("Menu Item Not Found");
+            }
+            cartWriteBehindStore.addItem(userId, menuId, quantity);
+
+            return Response.builder()
+                    .statusCode(HttpStatus.OK.value())
+                    .message("Item added to cart successfully")
+                    .build();
         }
 
-        //cartRepository.save(cart); // not, it will auto save and persists int the cart table
+        // one statement: inserts the item or adds to its quantity, concurrent adds are never lost
+        if (cartItemRepository.upsertQuantity(userId, menuId, quantity) == 0) {
+
+            if (!menuRepository.existsById(menuId)) {
+                throw new NotFoundException("Menu Item Not Found");
+            }
+
+            // first item of this user, the cart row has to exist before the upsert can find it;
+            // two first adds at once both get here, the second insert waits and does nothing
+            cartRepository.insertIfAbsent(userId);
+
+            cartItemRepository.upsertQuantity(userId, menuId, quantity);
+        }
 
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
@@ -98,22 +92,20 @@ public class CartServiceImpl implements CartService {
 
         log.info("Inside incrementItem()");
 
-        User user = userService.getCurrentLoggedInUser();
-
-        Cart cart = cartRepository.findByUser_Id(user.getId())
-                .orElseThrow(() -> new NotFoundException("Cart Not Found for user"));
-
-        CartItem cartItem = cart.getCartItems().stream()
-                .filter(item -> item.getMenu().getId().equals(menuId))
-                .findFirst().orElseThrow(() -> new NotFoundException("Menu not found in cart"));
-
-        int newQuantity = cartItem.getQuantity() + 1;
+        Long userId = userService.getCurrentLoggedInUserId();
 
-        cartItem.setQuantity(newQuantity);
+        if (cartWriteBehindStore.isEnabled()) {
+            cartWriteBehindStore.incrementItem(userId, menuId);
 
-        cartItem.setSubTotal(cartItem.getPricePerUnit().multiply(BigDecimal.valueOf(newQuantity)));
+            return Response.builder()
+                    .statusCode(HttpStatus.OK.value())
+                    .message("Item quantity incremented successfully")
+                    .build();
+        }
 
-        cartItemRepository.save(cartItem);
+        if (cartItemRepository.addQuantity(userId, menuId, 1) == 0) {
+            throw new NotFoundException("Menu not found in cart");
+        }
 
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
@@ -127,27 +119,24 @@ public class CartServiceImpl implements CartService {
 
         log.info("Inside decrementItem()");
 
-        User user = userService.getCurrentLoggedInUser();
+        Long userId = userService.getCurrentLoggedInUserId();
 
-        Cart cart = cartRepository.findByUser_Id(user.getId())
-                .orElseThrow(() -> new NotFoundException("Cart Not Found"));
+        if (cartWriteBehindStore.isEnabled()) {
+            cartWriteBehindStore.decrementItem(userId, menuId);
 
-        CartItem cartItem = cart.getCartItems().stream()
-                .filter(item -> item.getMenu().getId().equals(menuId))
-                .findFirst().orElseThrow(() -> new NotFoundException("Menu not found in cart"));
-
-        int newQuantity = cartItem.getQuantity() - 1;
-
-        if (newQuantity > 0) {
-            cartItem.setQuantity(newQuantity);
-            cartItem.setSubTotal(cartItem.getPricePerUnit().multiply(BigDecimal.valueOf(newQuantity)));
+            return Response.builder()
+                    .statusCode(HttpStatus.OK.value())
+                    .message("Item quantity updated successfully")
+                    .build();
+        }
 
-            cartItemRepository.save(cartItem);
-        } else {
-            cart.getCartItems().remove(cartItem);
-            cartItemRepository.delete(cartItem);
+        if (cartItemRepository.addQuantity(userId, menuId, -1) == 0) {
+            throw new NotFoundException("Menu not found in cart");
         }
 
+        // the item left the cart if that was its last unit
+        cartItemRepository.deleteEmpty(userId, menuId);
+
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
                 .message("Item quantity updated successfully")
@@ -159,9 +148,24 @@ public class CartServiceImpl implements CartService {
 
         log.info("Inside removeItem()");
 
-        User user = userService.getCurrentLoggedInUser();
+        Long userId = userService.getCurrentLoggedInUserId();
+
+        if (!cartWriteBehindStore.isEnabled()) {
+            // one statement: only deletes the item if it is in the user's cart, totals move with it
+            if (cartItemRepository.deleteFromCart(userId, cartItemid) == 0) {
+                throw new NotFoundException("Cart Item Not Found");
+            }
+
+            return Response.builder()
+                    .statusCode(HttpStatus.OK.value())
+                    .message("Item removed from cart successfully")
+                    .build();
+        }
+
+        // cart item ids only exist once pending items are written
+        cartWriteBehindStore.flush(userId);
 
-        Cart cart = cartRepository.findByUser_Id(user.getId())
+        Cart cart = cartRepository.findByUser_Id(userId)
                 .orElseThrow(() -> new NotFoundException("Cart Not Found"));
 
         CartItem cartItem = cartItemRepository.findById(cartItemid)
@@ -171,8 +175,7 @@ public class CartServiceImpl implements CartService {
             throw new NotFoundException("Cart item does not belong to this user's cart");
         }
 
-        cart.getCartItems().remove(cartItem);
-        cartItemRepository.delete(cartItem);
+        cartWriteBehindStore.removeItem(userId, cartItem.getMenu().getId());
 
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
@@ -181,40 +184,84 @@ public class CartServiceImpl implements CartService {
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public Response<CartDTO> getShoppingCart() {
+    public Response<CartDTO> updateCart(CartUpdateDTO cartUpdateDTO) {
 
-        log.info("Inside getShoppingCart()");
+        log.info("Inside updateCart()");
 
-        User user = userService.getCurrentLoggedInUser();
+        Long userId = userService.getCurrentLoggedInUserId();
 
-        Cart cart = cartRepository.findByUser_Id(user.getId())
-                .orElseThrow(() -> new NotFoundException("Cart Not Found for user"));
+        // the last target for a menu wins
+        Map<Long, Integer> targets = new LinkedHashMap<>();
+        cartUpdateDTO.getItems().forEach(item -> targets.put(item.getMenuId(), item.getQuantity()));
 
-        List<CartItem> cartItems = cart.getCartItems();
+        // one lookup for every menu that stays in the cart
+        Set<Long> wantedMenuIds = targets.entrySet().stream()
+                .filter(target -> target.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
 
-        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+        Map<Long, Menu> menus = menuRepository.findAllById(wantedMenuIds).stream()
+                .collect(Collectors.toMap(Menu::getId, menu -> menu));
 
-        // Calculate total amount
-        BigDecimal totalAmount = BigDecimal.ZERO;
-        if (cartItems != null) { // Add null check here
-            for (CartItem item : cartItems) {
-                totalAmount = totalAmount.add(item.getSubTotal());
-            }
+        if (menus.size() != wantedMenuIds.size()) {
+            throw new NotFoundException("Menu Item Not Found");
         }
 
-        cartDTO.setTotalAmount(totalAmount); // set the total amount
-
-        // remove the review form the response
-        if (cartDTO.getCartItems() != null) {
-            cartDTO.getCartItems()
-                    .forEach(item -> item.getMenu().setReviews(null));
+        Cart cart;
+        if (cartWriteBehindStore.isEnabled()) {
+            cartWriteBehindStore.setQuantities(userId, targets);
+            cartWriteBehindStore.flush(userId);
+            cart = cartRepository.findWithItemsByUser_Id(userId)
+                    .orElseThrow(() -> new NotFoundException("Cart Not Found for user"));
+        } else {
+            cart = applyTargets(userId, targets, menus);
         }
 
+        return Response.<CartDTO>builder()
+                .statusCode(HttpStatus.OK.value())
+                .message("Shopping cart updated successfully")
+                .data(toCartDTO(cart))
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Response<CartSummaryDTO> getCartSummary() {
+
+        log.info("Inside getCartSummary()");
+
+        Long userId = userService.getCurrentLoggedInUserId();
+
+        cartWriteBehindStore.flush(userId);
+
+        // no cart yet reads as an empty one
+        CartSummaryDTO cartSummaryDTO = cartRepository.findSummaryByUserId(userId)
+                .orElseGet(CartSummaryDTO::new);
+
+        return Response.<CartSummaryDTO>builder()
+                .statusCode(HttpStatus.OK.value())
+                .message("Cart summary retrieved successfully")
+                .data(cartSummaryDTO)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Response<CartDTO> getShoppingCart() {
+
+        log.info("Inside getShoppingCart()");
+
+        Long userId = userService.getCurrentLoggedInUserId();
+
+        cartWriteBehindStore.flush(userId);
+
+        Cart cart = cartRepository.findByUser_Id(userId)
+                .orElseThrow(() -> new NotFoundException("Cart Not Found for user"));
+
         return Response.<CartDTO> builder()
                 .statusCode(HttpStatus.OK.value())
                 .message("Shopping cart retrieved successfully")
-                .data(cartDTO)
+                .data(toCartDTO(cart))
                 .build();
     }
 
@@ -223,23 +270,110 @@ public class CartServiceImpl implements CartService {
 
         log.info("Inside clearShoppingCart()");
 
-        User user = userService.getCurrentLoggedInUser();
+        Long userId = userService.getCurrentLoggedInUserId();
 
-        Cart cart = cartRepository.findByUser_Id(user.getId())
-                .orElseThrow(() -> new NotFoundException("Cart Not Found for user"));
+        if (cartWriteBehindStore.isEnabled()) {
+            cartWriteBehindStore.clear(userId);
 
-        // Delete cart items from the database first
-        cartItemRepository.deleteAll(cart.getCartItems());
+            return Response.builder()
+                    .statusCode(HttpStatus.OK.value())
+                    .message("Shopping cart cleared successfully")
+                    .build();
+        }
 
-        // Clear the cart's items collection
-        cart.getCartItems().clear();
+        // cart row before its items, the same order as every other cart mutation
+        Long cartId = cartRepository.lockByUserId(userId)
+                .orElseThrow(() -> new NotFoundException("Cart Not Found for user"));
 
-        // update the database
-        cartRepository.save(cart);
+        // Delete all cart items with a single statement
+        cartItemRepository.deleteByCartId(cartId);
+        cartRepository.resetTotals(cartId);
 
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
                 .message("Shopping cart cleared successfully")
                 .build();
     }
+
+    private Cart applyTargets(Long userId, Map<Long, Integer> targets, Map<Long, Menu> menus) {
+
+        // held until commit, so single-item adds cannot insert rows underneath this update
+        if (cartRepository.lockByUserId(userId).isEmpty()) {
+            cartRepository.insertIfAbsent(userId);
+            cartRepository.lockByUserId(userId);
+        }
+
+        Cart cart = cartRepository.findWithItemsByUser_Id(userId)
+                .orElseThrow(() -> new NotFoundException("Cart Not Found for user"));
+
+        BigDecimal amountBefore = sumSubTotals(cart.getCartItems());
+        int countBefore = sumQuantities(cart.getCartItems());
+
+        // orphanRemoval deletes the rows of items set to 0
+        cart.getCartItems().removeIf(item -> item.getMenu() == null || targets.getOrDefault(item.getMenu().getId(), -1) == 0);
+
+        Map<Long, CartItem> itemsByMenu = cart.getCartItems().stream()
+                .collect(Collectors.toMap(item -> item.getMenu().getId(), item -> item));
+
+        List<CartItem> newItems = new ArrayList<>();
+
+        targets.forEach((menuId, quantity) -> {
+            if (quantity == 0) {
+                return;
+            }
+
+            CartItem cartItem = itemsByMenu.get(menuId);
+            if (cartItem != null) {
+                cartItem.setQuantity(quantity);
+                cartItem.setSubTotal(cartItem.getPricePerUnit().multiply(BigDecimal.valueOf(quantity)));
+                return;
+            }
+
+            Menu menu = menus.get(menuId);
+            CartItem newCartItem = CartItem.builder()
+                    .cart(cart)
+                    .menu(menu)
+                    .quantity(quantity)
+                    .pricePerUnit(menu.getPrice())
+                    .subTotal(menu.getPrice().multiply(BigDecimal.valueOf(quantity)))
+                    .build();
+
+            cart.getCartItems().add(newCartItem);
+            newItems.add(newCartItem);
+        });
+
+        // inserted in one JDBC batch at flush, changed items are written by dirty checking
+        cartItemRepository.saveAll(newItems);
+
+        BigDecimal amountAfter = sumSubTotals(cart.getCartItems());
+        int countAfter = sumQuantities(cart.getCartItems());
+
+        // the cart row is locked, so the delta is exact
+        cartRepository.addToTotals(cart.getId(), amountAfter.subtract(amountBefore), countAfter - countBefore);
+
+        // the columns are not written by the entity, mirror the update for the response
+        cart.setTotalAmount(amountAfter);
+        cart.setItemCount(countAfter);
+
+        return cart;
+    }
+
+    private static BigDecimal sumSubTotals(List<CartItem> cartItems) {
+        return cartItems.stream().map(CartItem::getSubTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static int sumQuantities(List<CartItem> cartItems) {
+        return cartItems.stream().mapToInt(CartItem::getQuantity).sum();
+    }
+
+    private CartDTO toCartDTO(Cart cart) {
+
+        CartDTO cartDTO = modelMapper.map(cart, CartDTO.class);
+
+        // kept up to date by every mutation, no need to walk the items
+        cartDTO.setTotalAmount(cart.getTotalAmount() != null ? cart.getTotalAmount() : BigDecimal.ZERO);
+        cartDTO.setItemCount(cart.getItemCount() != null ? cart.getItemCount() : 0);
+
+        return cartDTO;
+    }
 }
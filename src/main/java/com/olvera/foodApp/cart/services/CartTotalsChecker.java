@@ -0,0 +1,67 @@
+package com.olvera.foodApp.cart.services;
+
+import com.olvera.foodApp.cart.repository.CartRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Compares the totals stored on each cart with its items and recounts the carts that drifted
+ * (manual SQL, restores, a code path that forgot the delta). The cart tests assert that no cart
+ * drifts after each mutation; the periodic check in production is opt-in.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CartTotalsChecker {
+
+    private final CartRepository cartRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${cart.totals-verify.enabled:false}")
+    private boolean enabled;
+
+    @Scheduled(
+            initialDelayString = "${cart.totals-verify.interval:3600000}",
+            fixedDelayString = "${cart.totals-verify.interval:3600000}")
+    public void verifyPeriodically() {
+
+        if (!enabled) {
+            return;
+        }
+
+        verify();
+    }
+
+    // always once on startup, which backfills the totals of carts created before the columns existed
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+
+        List<Long> drifted = cartRepository.findCartIdsWithDriftedTotals();
+
+        if (drifted.isEmpty()) {
+            return;
+        }
+
+        drifted.forEach(this::recalculate);
+
+        log.warn("Recalculated totals of {} carts: {}", drifted.size(), drifted);
+    }
+
+    private void recalculate(Long cartId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // a mutation in flight holds the cart row until commit, the recount runs after it
+            if (cartRepository.lockById(cartId).isPresent()) {
+                cartRepository.recalculateTotals(List.of(cartId));
+            }
+        });
+    }
+}
@@ -0,0 +1,550 @@
+package com.olvera.foodApp.cart.services;
+
+import com.olvera.foodApp.auth_users.repository.UserRepository;
+import com.olvera.foodApp.cart.entity.Cart;
+import com.olvera.foodApp.cart.entity.CartItem;
+import com.olvera.foodApp.cart.repository.CartRepository;
+import com.olvera.foodApp.exceptions.NotFoundException;
+import com.olvera.foodApp.menu.entity.Menu;
+import com.olvera.foodApp.menu.repository.MenuRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Opt-in ({@code cart.write-behind.enabled}) in-memory cart engine. Active carts are held per
+ * user as immutable menuId/quantity arrays behind an AtomicReference, so a cart click is a
+ * compare-and-set without locks or SQL. Changed carts are marked dirty and written to
+ * carts/cart_items in batches on a schedule, and synchronously before anything that reads the
+ * tables (checkout, cart view, item removal by id).
+ *
+ * Flushes of the same cart are serialized with striped locks held until the flushing
+ * transaction completes, so two flushes never insert the same new item twice. Carts are loaded
+ * under the same lock, so a click never starts from rows a checkout is about to empty. Pending changes
+ * only live on this node: enable it only for single-instance or user-sticky deployments.
+ */
+@Component
+@Slf4j
+public class CartWriteBehindStore {
+
+    private static final long[] NO_MENUS = new long[0];
+
+    private static final int[] NO_QUANTITIES = new int[0];
+
+    private final CartRepository cartRepository;
+
+    private final MenuRepository menuRepository;
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate flushTransactionTemplate;
+
+    private final Map<Long, AtomicReference<CartState>> carts = new ConcurrentHashMap<>();
+
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private final ReentrantLock[] flushLocks;
+
+    private final boolean enabled;
+
+    @Value("${cart.write-behind.batch-size:100}")
+    private int batchSize;
+
+    @Value("${cart.write-behind.idle-timeout:30m}")
+    private Duration idleTimeout;
+
+    /**
+     * menuIds sorted ascending, quantities aligned with them. A new instance for every change, so
+     * reference equality tells whether a cart changed since it was read.
+     */
+    private record CartState(long[] menuIds, int[] quantities, long lastAccess, boolean retired) {
+
+        static CartState empty() {
+            return new CartState(NO_MENUS, NO_QUANTITIES, System.currentTimeMillis(), false);
+        }
+
+        int quantityOf(long menuId) {
+            int index = Arrays.binarySearch(menuIds, menuId);
+            return index >= 0 ? quantities[index] : 0;
+        }
+
+        // a quantity of zero or less removes the item
+        CartState withQuantity(long menuId, int quantity) {
+
+            int index = Arrays.binarySearch(menuIds, menuId);
+            long now = System.currentTimeMillis();
+
+            if (index >= 0 && quantity > 0) {
+                int[] newQuantities = quantities.clone();
+                newQuantities[index] = quantity;
+                return new CartState(menuIds, newQuantities, now, false);
+            }
+
+            if (index >= 0) {
+                long[] newMenuIds = new long[menuIds.length - 1];
+                int[] newQuantities = new int[quantities.length - 1];
+                System.arraycopy(menuIds, 0, newMenuIds, 0, index);
+                System.arraycopy(menuIds, index + 1, newMenuIds, index, menuIds.length - index - 1);
+                System.arraycopy(quantities, 0, newQuantities, 0, index);
+                System.arraycopy(quantities, index + 1, newQuantities, index, quantities.length - index - 1);
+                return new CartState(newMenuIds, newQuantities, now, false);
+            }
+
+            if (quantity <= 0) {
+                return this;
+            }
+
+            int insertAt = -index - 1;
+            long[] newMenuIds = new long[menuIds.length + 1];
+            int[] newQuantities = new int[quantities.length + 1];
+            System.arraycopy(menuIds, 0, newMenuIds, 0, insertAt);
+            System.arraycopy(menuIds, insertAt, newMenuIds, insertAt + 1, menuIds.length - insertAt);
+            System.arraycopy(quantities, 0, newQuantities, 0, insertAt);
+            System.arraycopy(quantities, insertAt, newQuantities, insertAt + 1, quantities.length - insertAt);
+            newMenuIds[insertAt] = menuId;
+            newQuantities[insertAt] = quantity;
+            return new CartState(newMenuIds, newQuantities, now, false);
+        }
+
+        CartState retire() {
+            return new CartState(menuIds, quantities, lastAccess, true);
+        }
+    }
+
+    public CartWriteBehindStore(
+            CartRepository cartRepository,
+            MenuRepository menuRepository,
+            UserRepository userRepository,
+            TransactionTemplate transactionTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${cart.write-behind.enabled:false}") boolean enabled,
+            @Value("${cart.write-behind.lock-stripes:64}") int lockStripes) {
+
+        this.cartRepository = cartRepository;
+        this.menuRepository = menuRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.flushTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+
+        this.flushLocks = new ReentrantLock[Math.max(1, lockStripes)];
+        for (int i = 0; i < flushLocks.length; i++) {
+            flushLocks[i] = new ReentrantLock();
+        }
+
+        Gauge.builder("cart.write-behind.active", carts, Map::size)
+                .description("Carts held in memory")
+                .register(meterRegistry);
+
+        Gauge.builder("cart.write-behind.dirty", dirty, Set::size)
+                .description("Carts with changes not yet written to the database")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void addItem(Long userId, Long menuId, int quantity) {
+        mutate(userId, state -> state.withQuantity(menuId, state.quantityOf(menuId) + quantity));
+    }
+
+    public void incrementItem(Long userId, Long menuId) {
+        mutate(userId, state -> state.withQuantity(menuId, requireInCart(state, menuId) + 1));
+    }
+
+    public void decrementItem(Long userId, Long menuId) {
+        mutate(userId, state -> state.withQuantity(menuId, requireInCart(state, menuId) - 1));
+    }
+
+    public void removeItem(Long userId, Long menuId) {
+        mutate(userId, state -> state.withQuantity(menuId, 0));
+    }
+
+    // all targets in one compare-and-set, a quantity of 0 removes the item
+    public void setQuantities(Long userId, Map<Long, Integer> quantities) {
+        mutate(userId, state -> {
+            CartState next = state;
+            for (Map.Entry<Long, Integer> target : quantities.entrySet()) {
+                next = next.withQuantity(target.getKey(), target.getValue());
+            }
+            return next;
+        });
+    }
+
+    public void clear(Long userId) {
+        mutate(userId, state -> CartState.empty());
+    }
+
+    /**
+     * Writes the user's pending changes inside the caller's transaction (or a new one when there
+     * is none), so the queries that follow see them. No-op when the cart is clean.
+     */
+    public void flush(Long userId) {
+        if (enabled && dirty.contains(userId)) {
+            runInTransaction(() -> flushUsers(List.of(userId)));
+        }
+    }
+
+    /**
+     * Hands the user's cart over to a checkout running in the caller's transaction: the cart is
+     * retired and written, and the user's stripe lock is held until the transaction completes.
+     * A click arriving meanwhile sees the retired state and waits in {@link #entry} until then,
+     * so it starts from the emptied cart instead of being dropped or resurrecting ordered items.
+     * On commit only the retired instance is removed; on rollback it is restored.
+     */
+    public void checkout(Long userId) {
+
+        if (!enabled) {
+            return;
+        }
+
+        List<ReentrantLock> locks = lockAll(List.of(userId));
+
+        boolean registered = false;
+        try {
+            AtomicReference<CartState> ref = carts.get(userId);
+            // one atomic step: every click either made it into this state or sees it retired
+            CartState flushed = ref == null ? null : ref.getAndUpdate(CartState::retire);
+            boolean handedOver = flushed != null && !flushed.retired();
+
+            if (handedOver && dirty.contains(userId)) {
+                writeStates(Map.of(userId, flushed));
+            }
+
+            registered = true;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (!handedOver) {
+                            return;
+                        }
+                        if (status == STATUS_COMMITTED) {
+                            carts.remove(userId, ref);
+                            dirty.remove(userId);
+                        } else {
+                            // the order was not placed, the cart and its pending changes stay
+                            ref.set(flushed);
+                            carts.putIfAbsent(userId, ref);
+                        }
+                    } finally {
+                        unlockAll(locks);
+                    }
+                }
+            });
+        } finally {
+            if (!registered) {
+                unlockAll(locks);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval:2000}")
+    public void flushDirty() {
+
+        if (!enabled) {
+            return;
+        }
+
+        List<Long> pending = new ArrayList<>(dirty);
+        int size = Math.max(batchSize, 1);
+
+        for (int from = 0; from < pending.size(); from += size) {
+            List<Long> chunk = pending.subList(from, Math.min(from + size, pending.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> flushUsers(chunk));
+            } catch (RuntimeException e) {
+                // the carts stay dirty and are retried on the next run
+                log.error("Failed to flush {} carts: {}", chunk.size(), e.getMessage());
+            }
+        }
+
+        evictIdle();
+    }
+
+    @PreDestroy
+    private void flushOnShutdown() {
+        flushDirty();
+    }
+
+    private CartState mutate(Long userId, UnaryOperator<CartState> change) {
+
+        while (true) {
+            AtomicReference<CartState> ref = entry(userId);
+            CartState current = ref.get();
+
+            // evicted between the lookup and now, load it again
+            if (current.retired()) {
+                carts.remove(userId, ref);
+                continue;
+            }
+
+            CartState next = change.apply(current);
+            if (ref.compareAndSet(current, next)) {
+                // after the CAS: a flush that already cleared the flag re-checks the state afterwards
+                dirty.add(userId);
+                return next;
+            }
+        }
+    }
+
+    private AtomicReference<CartState> entry(Long userId) {
+
+        AtomicReference<CartState> ref = carts.get(userId);
+        if (ref != null) {
+            return ref;
+        }
+
+        // loaded outside the map so a slow query does not block other users of the same bin, but
+        // under the user's stripe lock, which a checkout holds until it commits
+        List<ReentrantLock> locks = lockAll(List.of(userId));
+        try {
+            ref = carts.get(userId);
+            if (ref != null) {
+                return ref;
+            }
+
+            AtomicReference<CartState> loaded = new AtomicReference<>(load(userId));
+            carts.put(userId, loaded);
+            return loaded;
+        } finally {
+            unlockAll(locks);
+        }
+    }
+
+    private CartState load(Long userId) {
+
+        Map<Long, Integer> quantities = new HashMap<>();
+        cartRepository.findWithItemsByUser_Id(userId).ifPresent(cart -> cart.getCartItems().stream()
+                .filter(item -> item.getMenu() != null)
+                .forEach(item -> quantities.merge(item.getMenu().getId(), item.getQuantity(), Integer::sum)));
+
+        long[] menuIds = quantities.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        int[] counts = Arrays.stream(menuIds).mapToInt(menuId -> quantities.get(menuId)).toArray();
+
+        return new CartState(menuIds, counts, System.currentTimeMillis(), false);
+    }
+
+    private static int requireInCart(CartState state, Long menuId) {
+        int quantity = state.quantityOf(menuId);
+        if (quantity <= 0) {
+            throw new NotFoundException("Menu not found in cart");
+        }
+        return quantity;
+    }
+
+    // must run inside a transaction; the locks and dirty flags are settled when it completes
+    private void flushUsers(Collection<Long> userIds) {
+
+        List<ReentrantLock> locks = lockAll(userIds);
+
+        boolean registered = false;
+        try {
+            Map<Long, CartState> states = new LinkedHashMap<>();
+            for (Long userId : userIds) {
+                AtomicReference<CartState> ref = carts.get(userId);
+                CartState state = ref == null ? null : ref.get();
+                if (state != null && !state.retired()) {
+                    states.put(userId, state);
+                }
+            }
+
+            if (!states.isEmpty()) {
+                writeStates(states);
+            }
+
+            registered = true;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            markFlushed(states);
+                        }
+                    } finally {
+                        unlockAll(locks);
+                    }
+                }
+            });
+        } finally {
+            if (!registered) {
+                unlockAll(locks);
+            }
+        }
+    }
+
+    private void writeStates(Map<Long, CartState> states) {
+
+        Map<Long, Cart> cartsByUser = cartRepository.findWithItemsByUser_IdIn(states.keySet()).stream()
+                .collect(Collectors.toMap(cart -> cart.getUser().getId(), cart -> cart));
+
+        // menus of items that are not in the table yet, loaded in one query for their price
+        Set<Long> newMenuIds = new HashSet<>();
+        states.forEach((userId, state) -> {
+            Cart cart = cartsByUser.get(userId);
+            Set<Long> existing = cart == null ? Set.of() : cart.getCartItems().stream()
+                    .filter(item -> item.getMenu() != null)
+                    .map(item -> item.getMenu().getId())
+                    .collect(Collectors.toSet());
+            for (long menuId : state.menuIds()) {
+                if (!existing.contains(menuId)) {
+                    newMenuIds.add(menuId);
+                }
+            }
+        });
+
+        Map<Long, Menu> menus = menuRepository.findAllById(newMenuIds).stream()
+                .collect(Collectors.toMap(Menu::getId, menu -> menu));
+
+        List<Cart> newCarts = new ArrayList<>();
+
+        states.forEach((userId, state) -> {
+            Cart cart = cartsByUser.get(userId);
+            if (cart == null) {
+                if (state.menuIds().length == 0) {
+                    return;
+                }
+                cart = new Cart();
+                cart.setUser(userRepository.getReferenceById(userId));
+                cart.setCartItems(new ArrayList<>());
+                newCarts.add(cart);
+            }
+            apply(cart, state, menus);
+        });
+
+        // existing carts are managed, their changes are written by dirty checking at commit
+        cartRepository.saveAll(newCarts);
+
+        // the whole cart was rewritten, so its totals are recounted rather than moved by a delta
+        List<Long> cartIds = new ArrayList<>();
+        cartsByUser.values().forEach(cart -> cartIds.add(cart.getId()));
+        newCarts.forEach(cart -> cartIds.add(cart.getId()));
+        if (!cartIds.isEmpty()) {
+            cartRepository.touch(cartIds);
+            cartRepository.recalculateTotals(cartIds);
+        }
+    }
+
+    private static void apply(Cart cart, CartState state, Map<Long, Menu> menus) {
+
+        // orphanRemoval deletes the rows of items that left the cart
+        cart.getCartItems().removeIf(item -> item.getMenu() == null || state.quantityOf(item.getMenu().getId()) <= 0);
+
+        Map<Long, CartItem> itemsByMenu = cart.getCartItems().stream()
+                .collect(Collectors.toMap(item -> item.getMenu().getId(), item -> item, (first, second) -> first));
+
+        for (int i = 0; i < state.menuIds().length; i++) {
+            long menuId = state.menuIds()[i];
+            int quantity = state.quantities()[i];
+
+            CartItem item = itemsByMenu.get(menuId);
+            if (item != null) {
+                if (item.getQuantity() != quantity) {
+                    item.setQuantity(quantity);
+                    item.setSubTotal(item.getPricePerUnit().multiply(BigDecimal.valueOf(quantity)));
+                }
+                continue;
+            }
+
+            Menu menu = menus.get(menuId);
+            if (menu == null) {
+                // deleted since it was added, the reload after the flush drops it
+                continue;
+            }
+
+            cart.getCartItems().add(CartItem.builder()
+                    .cart(cart)
+                    .menu(menu)
+                    .quantity(quantity)
+                    .pricePerUnit(menu.getPrice())
+                    .subTotal(menu.getPrice().multiply(BigDecimal.valueOf(quantity)))
+                    .build());
+        }
+    }
+
+    private void markFlushed(Map<Long, CartState> states) {
+        states.forEach((userId, state) -> {
+            dirty.remove(userId);
+            AtomicReference<CartState> ref = carts.get(userId);
+            // changed while the flush was running, keep it for the next one
+            if (ref != null && ref.get() != state) {
+                dirty.add(userId);
+            }
+        });
+    }
+
+    // clean carts nobody touched for a while; retiring by CAS fails if a click raced the eviction
+    private void evictIdle() {
+
+        long cutoff = System.currentTimeMillis() - idleTimeout.toMillis();
+
+        carts.forEach((userId, ref) -> {
+            CartState state = ref.get();
+            if (state.lastAccess() < cutoff && !dirty.contains(userId) && ref.compareAndSet(state, state.retire())) {
+                carts.remove(userId, ref);
+            }
+        });
+    }
+
+    // always in ascending stripe order, so a batch flush and a single-cart flush cannot deadlock
+    private List<ReentrantLock> lockAll(Collection<Long> userIds) {
+
+        Set<Integer> stripes = new TreeSet<>();
+        userIds.forEach(userId -> stripes.add(Math.floorMod(userId.hashCode(), flushLocks.length)));
+
+        List<ReentrantLock> locks = new ArrayList<>(stripes.size());
+        for (int stripe : stripes) {
+            flushLocks[stripe].lock();
+            locks.add(flushLocks[stripe]);
+        }
+        return locks;
+    }
+
+    private static void unlockAll(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    private void runInTransaction(Runnable action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            action.run();
+        } else {
+            // a read-only caller cannot write, the flush commits on its own before the caller reads
+            flushTransactionTemplate.executeWithoutResult(status -> action.run());
+        }
+    }
+}
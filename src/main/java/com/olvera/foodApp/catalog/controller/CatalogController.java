@@ -0,0 +1,32 @@
+package com.olvera.foodApp.catalog.controller;
+
+import com.olvera.foodApp.catalog.services.CatalogSnapshotService;
+import com.olvera.foodApp.exceptions.ServiceUnavailableException;
+import com.olvera.foodApp.response.Response;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/catalog")
+public class CatalogController {
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    @GetMapping("/version")
+    public ResponseEntity<Response<Long>> getCatalogVersion() {
+
+        Long version = catalogSnapshotService.getVersion()
+                .orElseThrow(() -> new ServiceUnavailableException("Catalog is not loaded yet"));
+
+        return ResponseEntity.ok(Response.<Long>builder()
+                .statusCode(HttpStatus.OK.value())
+                .message("Catalog version retrieved")
+                .data(version)
+                .build());
+    }
+}
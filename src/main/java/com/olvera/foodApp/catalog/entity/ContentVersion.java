@@ -0,0 +1,22 @@
+package com.olvera.foodApp.catalog.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// shared version of one ETag aggregate: "m" (menus), "c" (categories), "r<menuId>" (reviews)
+@Entity
+@Data
+@Table(name = "content_versions")
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContentVersion {
+
+    @Id
+    @Column(length = 64)
+    private String aggregate;
+
+    @Column(nullable = false)
+    private long version;
+}
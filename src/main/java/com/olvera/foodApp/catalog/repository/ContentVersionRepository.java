@@ -0,0 +1,22 @@
+package com.olvera.foodApp.catalog.repository;
+
+import com.olvera.foodApp.catalog.entity.ContentVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ContentVersionRepository extends JpaRepository<ContentVersion, String> {
+
+    // one statement, returns the new version; a new row starts at the clock, so a recreated
+    // table never reissues an old tag for new content
+    @Transactional
+    @Query(value = "WITH bumped AS (" +
+            "INSERT INTO content_versions (aggregate, version) " +
+            "VALUES (:aggregate, (EXTRACT(EPOCH FROM clock_timestamp()) * 1000)::bigint) " +
+            "ON CONFLICT (aggregate) DO UPDATE SET version = content_versions.version + 1 " +
+            "RETURNING version) " +
+            "SELECT version FROM bumped", nativeQuery = true)
+    long increment(@Param("aggregate") String aggregate);
+
+}
@@ -0,0 +1,282 @@
+package com.olvera.foodApp.catalog.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.olvera.foodApp.category.dtos.CategoryDTO;
+import com.olvera.foodApp.category.repository.CategoryRepository;
+import com.olvera.foodApp.menu.dtos.MenuDTO;
+import com.olvera.foodApp.menu.repository.MenuRepository;
+import com.olvera.foodApp.response.Response;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Immutable, pre-serialized view of the catalog (all categories, all menus with their rating
+ * aggregates) served for GET /api/categories/all and the unfiltered GET /api/menu without any
+ * Jackson or JPA work per request. Writes request a rebuild; bursts of requests collapse into
+ * one rebuild on a single background thread. The version only moves when the content changed.
+ *
+ * Whether the snapshot is current is decided against the in-memory ContentVersions counters,
+ * never the database: a local write swaps it once the write commits, a write on another node
+ * once ContentVersions adopts that node's version.
+ */
+@Service
+@Slf4j
+public class CatalogSnapshotService {
+
+    public static final String VERSION_HEADER = "X-Catalog-Version";
+
+    private final CategoryRepository categoryRepository;
+
+    private final MenuRepository menuRepository;
+
+    private final ModelMapper modelMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final ContentVersions contentVersions;
+
+    private final ExecutorService rebuildExecutor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("catalog-snapshot-"));
+
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+
+    @Value("${catalog.gzip:true}")
+    private boolean gzipEnabled;
+
+    // seeded from the clock so versions keep increasing across restarts
+    private long lastVersion = System.currentTimeMillis();
+
+    private volatile CatalogSnapshot snapshot;
+
+    private record SerializedBody(byte[] json, byte[] gzip) {
+    }
+
+    // categoriesVersion/menusVersion: the ContentVersions counters read before the rows were loaded
+    private record CatalogSnapshot(
+            long version,
+            byte[] digest,
+            SerializedBody categories,
+            long categoriesVersion,
+            SerializedBody menus,
+            long menusVersion) {
+    }
+
+    public CatalogSnapshotService(
+            CategoryRepository categoryRepository,
+            MenuRepository menuRepository,
+            ModelMapper modelMapper,
+            ObjectMapper objectMapper,
+            ContentVersions contentVersions) {
+        this.categoryRepository = categoryRepository;
+        this.menuRepository = menuRepository;
+        this.modelMapper = modelMapper;
+        this.objectMapper = objectMapper;
+        this.contentVersions = contentVersions;
+    }
+
+    /**
+     * Schedules a rebuild once the surrounding transaction (if any) commits. Calls made while a
+     * rebuild is already queued are absorbed by it.
+     */
+    public void requestRebuild() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    queueRebuild();
+                }
+            });
+        } else {
+            queueRebuild();
+        }
+    }
+
+    private void queueRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                // cleared before reading so writes committed during the rebuild queue another one
+                rebuildQueued.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    @EventListener(CatalogVersionsRefreshed.class)
+    public void onCatalogVersionsRefreshed() {
+        queueRebuild();
+    }
+
+    // safety net for anything that changed the rows without going through a write path
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${catalog.refresh-interval:60000}",
+            fixedDelayString = "${catalog.refresh-interval:60000}")
+    public synchronized void rebuild() {
+
+        try {
+            long categoriesVersion = contentVersions.categoriesVersion();
+            long menusVersion = contentVersions.menusVersion();
+
+            List<CategoryDTO> categories = categoryRepository.findAll(Sort.by(Sort.Direction.ASC, "id")).stream()
+                    .map(category -> modelMapper.map(category, CategoryDTO.class))
+                    .toList();
+
+            List<MenuDTO> menus = menuRepository.findAllSummaries();
+
+            byte[] categoriesJson = objectMapper.writeValueAsBytes(Response.<List<CategoryDTO>>builder()
+                    .statusCode(HttpStatus.OK.value())
+                    .message("All categories retrieved successfully")
+                    .data(categories)
+                    .build());
+
+            byte[] menusJson = objectMapper.writeValueAsBytes(Response.<List<MenuDTO>>builder()
+                    .statusCode(HttpStatus.OK.value())
+                    .message("Menu retrieved")
+                    .data(menus)
+                    .build());
+
+            byte[] digest = digest(categoriesJson, menusJson);
+
+            CatalogSnapshot current = snapshot;
+            if (current != null && Arrays.equals(current.digest(), digest)) {
+                // same bytes, but they are now known to be current for the newer counters
+                snapshot = new CatalogSnapshot(current.version(), digest,
+                        current.categories(), categoriesVersion, current.menus(), menusVersion);
+                return;
+            }
+
+            long version = ++lastVersion;
+            snapshot = new CatalogSnapshot(version, digest,
+                    serialized(categoriesJson), categoriesVersion, serialized(menusJson), menusVersion);
+
+            log.info("Catalog snapshot {} built: {} categories, {} menus, {} bytes",
+                    version, categories.size(), menus.size(), categoriesJson.length + menusJson.length);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("Failed to build catalog snapshot: {}", e.getMessage());
+        }
+    }
+
+    public Optional<Long> getVersion() {
+        CatalogSnapshot current = snapshot;
+        return current == null ? Optional.empty() : Optional.of(current.version());
+    }
+
+    /**
+     * Empty until the first snapshot is built, or while a write has committed that the snapshot
+     * does not reflect yet; callers then fall back to the regular query. Answers 304 when the
+     * request already holds the current ETag.
+     */
+    public Optional<ResponseEntity<byte[]>> categoriesResponse(WebRequest webRequest, String acceptEncoding, String cacheControl) {
+        CatalogSnapshot current = snapshot;
+        if (current == null || current.categoriesVersion() != contentVersions.categoriesVersion()) {
+            return Optional.empty();
+        }
+        return Optional.of(toResponse(webRequest, current.version(), current.categories(),
+                contentVersions.categoriesETag(current.categoriesVersion()), acceptEncoding, cacheControl));
+    }
+
+    public Optional<ResponseEntity<byte[]>> menusResponse(WebRequest webRequest, String acceptEncoding, String cacheControl) {
+        CatalogSnapshot current = snapshot;
+        if (current == null || current.menusVersion() != contentVersions.menusVersion()) {
+            return Optional.empty();
+        }
+        return Optional.of(toResponse(webRequest, current.version(), current.menus(),
+                contentVersions.menusETag(current.menusVersion()), acceptEncoding, cacheControl));
+    }
+
+    private static ResponseEntity<byte[]> toResponse(
+            WebRequest webRequest,
+            long version,
+            SerializedBody body,
+            String eTag,
+            String acceptEncoding,
+            String cacheControl) {
+
+        boolean gzip = body.gzip() != null
+                && acceptEncoding != null
+                && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        String representationETag = gzip ? ContentVersions.gzipVariant(eTag) : eTag;
+
+        if (webRequest.checkNotModified(representationETag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(representationETag)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(representationETag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .header(VERSION_HEADER, Long.toString(version))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (gzip) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return builder.body(body.json());
+    }
+
+    private SerializedBody serialized(byte[] json) {
+        return new SerializedBody(json, gzipEnabled ? gzip(json) : null);
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+            gzipOutputStream.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] digest(byte[]... parts) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            for (byte[] part : parts) {
+                messageDigest.update(part);
+            }
+            return messageDigest.digest();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        rebuildExecutor.shutdown();
+    }
+}
@@ -0,0 +1,5 @@
+package com.olvera.foodApp.catalog.services;
+
+// published by ContentVersions when a refresh adopted a menus or categories version bumped on another node
+public record CatalogVersionsRefreshed() {
+}
@@ -0,0 +1,172 @@
+package com.olvera.foodApp.catalog.services;
+
+import com.olvera.foodApp.catalog.entity.ContentVersion;
+import com.olvera.foodApp.catalog.repository.ContentVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-aggregate version counters behind the ETags of the catalog and review endpoints. Readers
+ * only touch the in-memory counters, so a 304 never costs a query; readers take the ETag before
+ * loading anything, so a response is never tagged with a version newer than its content.
+ *
+ * The counters are local copies of the content_versions rows, so every node issues the same tag
+ * for the same content. A write bumps its row once its transaction commits and adopts the new
+ * value at once; other nodes pick it up on their next {@code http.etag-sync-interval} refresh and
+ * answer with the old tag (and the old content) until then.
+ */
+@Component
+@Slf4j
+public class ContentVersions {
+
+    private static final String MENUS = "m";
+
+    private static final String CATEGORIES = "c";
+
+    private static final String REVIEWS = "r";
+
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    private final ContentVersionRepository contentVersionRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    // the bump runs after the write committed, in its own short transaction
+    private final TransactionTemplate newTransaction;
+
+    public ContentVersions(
+            ContentVersionRepository contentVersionRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager) {
+        this.contentVersionRepository = contentVersionRepository;
+        this.eventPublisher = eventPublisher;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public long menusVersion() {
+        return version(MENUS);
+    }
+
+    public long categoriesVersion() {
+        return version(CATEGORIES);
+    }
+
+    public String menusETag() {
+        return menusETag(menusVersion());
+    }
+
+    public String menusETag(long version) {
+        return eTag(MENUS, version);
+    }
+
+    public String categoriesETag() {
+        return categoriesETag(categoriesVersion());
+    }
+
+    public String categoriesETag(long version) {
+        return eTag(CATEGORIES, version);
+    }
+
+    public String reviewsETag(Long menuId) {
+        return eTag(REVIEWS + menuId, version(REVIEWS + menuId));
+    }
+
+    // gzip and identity bodies differ byte for byte, so a strong ETag must differ too
+    public static String gzipVariant(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + "-gzip\"";
+    }
+
+    public void menusChanged() {
+        runAfterCommit(() -> bump(MENUS));
+    }
+
+    public void categoriesChanged() {
+        runAfterCommit(() -> bump(CATEGORIES));
+    }
+
+    public void reviewsChanged(Long menuId) {
+        runAfterCommit(() -> bump(REVIEWS + menuId));
+    }
+
+    // adopts the versions bumped by other nodes; counters only move forward. The catalog snapshot
+    // is rebuilt when the menus or categories moved, instead of falling back to queries until its
+    // own scheduled rebuild
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${http.etag-sync-interval:5000}",
+            fixedDelayString = "${http.etag-sync-interval:5000}")
+    public void refresh() {
+        try {
+            boolean catalogMoved = false;
+
+            for (ContentVersion shared : contentVersionRepository.findAll()) {
+                AtomicLong counter = counter(shared.getAggregate());
+                long before = counter.get();
+                if (counter.accumulateAndGet(shared.getVersion(), Math::max) != before
+                        && (MENUS.equals(shared.getAggregate()) || CATEGORIES.equals(shared.getAggregate()))) {
+                    catalogMoved = true;
+                }
+            }
+
+            if (catalogMoved) {
+                eventPublisher.publishEvent(new CatalogVersionsRefreshed());
+            }
+        } catch (RuntimeException e) {
+            log.error("Failed to refresh content versions: {}", e.getMessage());
+        }
+    }
+
+    private void bump(String aggregate) {
+
+        AtomicLong counter = counter(aggregate);
+
+        try {
+            long shared = newTransaction.execute(status -> contentVersionRepository.increment(aggregate));
+            counter.updateAndGet(current -> Math.max(current + 1, shared));
+        } catch (RuntimeException e) {
+            // the tag must still move here; this node runs ahead of the shared row until the next write
+            counter.incrementAndGet();
+            log.warn("Failed to bump shared content version {}: {}", aggregate, e.getMessage());
+        }
+    }
+
+    private long version(String aggregate) {
+        AtomicLong counter = versions.get(aggregate);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private AtomicLong counter(String aggregate) {
+        return versions.computeIfAbsent(aggregate, key -> new AtomicLong());
+    }
+
+    private static String eTag(String aggregate, long version) {
+        return "\"" + aggregate + "-" + Long.toString(version, 36) + "\"";
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
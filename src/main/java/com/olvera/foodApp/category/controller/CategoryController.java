@@ -1,15 +1,22 @@
 package com.olvera.foodApp.category.controller;
 
+import com.olvera.foodApp.catalog.services.CatalogSnapshotService;
+import com.olvera.foodApp.catalog.services.ContentVersions;
 import com.olvera.foodApp.category.dtos.CategoryDTO;
 import com.olvera.foodApp.category.services.CategoryService;
 import com.olvera.foodApp.response.Response;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequiredArgsConstructor
@@ -18,6 +25,13 @@ public class CategoryController {
 
     private final CategoryService categoryService;
 
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    private final ContentVersions contentVersions;
+
+    @Value("${http.cache-control.categories:no-cache}")
+    private String categoriesCacheControl;
+
     @PostMapping
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<Response<CategoryDTO>> addCategory(@RequestBody @Valid CategoryDTO categoryDTO) {
@@ -36,8 +50,26 @@ public class CategoryController {
     }
 
     @GetMapping("/all")
-    public ResponseEntity<Response<List<CategoryDTO>>> getAllCategories() {
-        return ResponseEntity.ok(categoryService.getAllCategories());
+    public ResponseEntity<?> getAllCategories(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest
+    ) {
+        Optional<ResponseEntity<byte[]>> snapshot =
+                catalogSnapshotService.categoriesResponse(webRequest, acceptEncoding, categoriesCacheControl);
+        if (snapshot.isPresent()) {
+            return snapshot.get();
+        }
+
+        // taken before the query, the content can only be newer than the tag
+        String eTag = contentVersions.categoriesETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).header(HttpHeaders.CACHE_CONTROL, categoriesCacheControl).build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .header(HttpHeaders.CACHE_CONTROL, categoriesCacheControl)
+                .body(categoryService.getAllCategories());
     }
 
     @DeleteMapping("/{id}")
@@ -1,9 +1,13 @@
 package com.olvera.foodApp.category.services;
 
+import com.olvera.foodApp.catalog.services.CatalogSnapshotService;
+import com.olvera.foodApp.catalog.services.ContentVersions;
 import com.olvera.foodApp.category.dtos.CategoryDTO;
 import com.olvera.foodApp.category.entity.Category;
 import com.olvera.foodApp.category.repository.CategoryRepository;
 import com.olvera.foodApp.exceptions.NotFoundException;
+import com.olvera.foodApp.menu.services.MenuCatalogCache;
+import com.olvera.foodApp.menu.services.MenuSearchIndex;
 import com.olvera.foodApp.response.Response;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +26,14 @@ public class CategoryServiceImpl implements CategoryService {
 
     private final ModelMapper modelMapper;
 
+    private final MenuCatalogCache menuCatalogCache;
+
+    private final MenuSearchIndex menuSearchIndex;
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    private final ContentVersions contentVersions;
+
     @Override
     public Response<CategoryDTO> addCategory(CategoryDTO categoryDTO) {
 
@@ -29,6 +41,8 @@ public class CategoryServiceImpl implements CategoryService {
 
         Category category = modelMapper.map(categoryDTO, Category.class);
         categoryRepository.save(category);
+        contentVersions.categoriesChanged();
+        catalogSnapshotService.requestRebuild();
 
         return Response.<CategoryDTO>builder()
                 .statusCode(HttpStatus.OK.value())
@@ -48,6 +62,8 @@ public class CategoryServiceImpl implements CategoryService {
         if (categoryDTO.getDescription() != null) category.setDescription(categoryDTO.getDescription());
 
         categoryRepository.save(category);
+        contentVersions.categoriesChanged();
+        catalogSnapshotService.requestRebuild();
 
         return Response.<CategoryDTO>builder()
                 .statusCode(HttpStatus.OK.value())
@@ -102,6 +118,11 @@ public class CategoryServiceImpl implements CategoryService {
 
         categoryRepository.deleteById(id);
 
+        // menus of the category are removed with it
+        menuSearchIndex.removeCategory(id);
+        contentVersions.categoriesChanged();
+        menuCatalogCache.invalidateCategories(id);
+
         return Response.<CategoryDTO>builder()
                 .statusCode(HttpStatus.OK.value())
                 .message("Category deleted successfully")
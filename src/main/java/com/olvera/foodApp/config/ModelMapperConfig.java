@@ -1,5 +1,7 @@
 package com.olvera.foodApp.config;
 
+import com.olvera.foodApp.menu.dtos.MenuDTO;
+import com.olvera.foodApp.menu.entity.Menu;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
 import org.springframework.context.annotation.Bean;
@@ -16,6 +18,10 @@ public class ModelMapperConfig {
                 .setFieldAccessLevel(org.modelmapper.config.Configuration.AccessLevel.PACKAGE_PRIVATE)
                 .setMatchingStrategy(MatchingStrategies.STANDARD);
 
+        // never walk the lazy reviews collection when a menu is mapped (cart, order and menu DTOs)
+        modelMapper.typeMap(Menu.class, MenuDTO.class)
+                .addMappings(mapper -> mapper.skip(MenuDTO::setReviews));
+
         return modelMapper;
     }
 }
@@ -0,0 +1,10 @@
+package com.olvera.foodApp.enums;
+
+public enum ImportJobStatus {
+
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+
+}
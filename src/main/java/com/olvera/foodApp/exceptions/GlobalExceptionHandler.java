@@ -83,6 +83,15 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Response<?>> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        Response<?> response = Response.builder()
+                .statusCode(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .message(ex.getMessage())
+                .build();
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Response<?>> handleIllegalArgumentException(IllegalArgumentException ex) {
         Response<?> response = Response.builder()
@@ -1,17 +1,30 @@
 package com.olvera.foodApp.menu.controller;
 
+import com.olvera.foodApp.catalog.services.CatalogSnapshotService;
+import com.olvera.foodApp.catalog.services.ContentVersions;
 import com.olvera.foodApp.menu.dtos.MenuDTO;
+import com.olvera.foodApp.menu.dtos.MenuImportJobDTO;
+import com.olvera.foodApp.menu.dtos.MenuPageDTO;
+import com.olvera.foodApp.menu.services.MenuImportService;
 import com.olvera.foodApp.menu.services.MenuService;
 import com.olvera.foodApp.response.Response;
+import com.olvera.foodApp.upload.dtos.ConfirmUploadDTO;
+import com.olvera.foodApp.upload.dtos.PresignRequestDTO;
+import com.olvera.foodApp.upload.dtos.PresignedUploadDTO;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/menu")
@@ -20,11 +33,20 @@ public class MenuController {
 
     private final MenuService menuService;
 
+    private final MenuImportService menuImportService;
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    private final ContentVersions contentVersions;
+
+    @Value("${http.cache-control.menus:no-cache}")
+    private String menusCacheControl;
+
     @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @PreAuthorize("hasAuthority('ADMIN')")
     public ResponseEntity<Response<MenuDTO>> createMenu(
             @ModelAttribute @Valid MenuDTO menuDTO,
-            @RequestPart(value = "imageFile", required = true) MultipartFile imageFile
+            @RequestPart(value = "imageFile", required = false) MultipartFile imageFile
     ) {
 
         menuDTO.setImageFile(imageFile);
@@ -42,9 +64,45 @@ public class MenuController {
         return ResponseEntity.ok(menuService.updateMenu(menuDTO));
     }
 
+    @PostMapping("/image/presign")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response<PresignedUploadDTO>> presignMenuImage(
+            @RequestBody @Valid PresignRequestDTO presignRequestDTO
+    ) {
+        return ResponseEntity.ok(menuService.presignMenuImage(presignRequestDTO));
+    }
+
+    @PutMapping("/{id}/image")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response<MenuDTO>> attachMenuImage(
+            @PathVariable Long id,
+            @RequestBody @Valid ConfirmUploadDTO confirmUploadDTO
+    ) {
+        return ResponseEntity.ok(menuService.attachMenuImage(id, confirmUploadDTO.getKey()));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response<MenuImportJobDTO>> importMenus(
+            @RequestPart(value = "file") MultipartFile file
+    ) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(menuImportService.startImport(file));
+    }
+
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    public ResponseEntity<Response<MenuImportJobDTO>> getImportJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(menuImportService.getImportJob(jobId));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<Response<MenuDTO>> getMenuById(@PathVariable Long id) {
-        return ResponseEntity.ok(menuService.getMenuById(id));
+    public ResponseEntity<Response<MenuDTO>> getMenuById(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean includeReviews,
+            @RequestParam(defaultValue = "0") int reviewPage,
+            @RequestParam(defaultValue = "10") int reviewSize
+    ) {
+        return ResponseEntity.ok(menuService.getMenuById(id, includeReviews, reviewPage, reviewSize));
     }
 
     @DeleteMapping("/{id}")
@@ -54,12 +112,39 @@ public class MenuController {
     }
 
     @GetMapping
-    public ResponseEntity<Response<List<MenuDTO>>> getMenus(
+    public ResponseEntity<?> getMenus(
             @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) String search
+            @RequestParam(required = false) String search,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest
     ) {
-        return ResponseEntity.ok(menuService.getMenus(categoryId, search));
-    }
-}
+        if (categoryId == null && (search == null || search.isBlank())) {
+            Optional<ResponseEntity<byte[]>> snapshot =
+                    catalogSnapshotService.menusResponse(webRequest, acceptEncoding, menusCacheControl);
+            if (snapshot.isPresent()) {
+                return snapshot.get();
+            }
+        }
+
+        // taken before the query, the content can only be newer than the tag
+        String eTag = contentVersions.menusETag();
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).header(HttpHeaders.CACHE_CONTROL, menusCacheControl).build();
+        }
 
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .header(HttpHeaders.CACHE_CONTROL, menusCacheControl)
+                .body(menuService.getMenus(categoryId, search));
+    }
 
+    @GetMapping("/page")
+    public ResponseEntity<Response<MenuPageDTO>> getMenuPage(
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return ResponseEntity.ok(menuService.getMenuPage(categoryId, search, cursor, size));
+    }
+}
@@ -7,12 +7,14 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.util.List;
 
 @Data
+@NoArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class MenuDTO {
@@ -30,11 +32,37 @@ public class MenuDTO {
 
     private String imageUrl;
 
+    private String thumbnailUrl;
+
+    private String mediumUrl;
+
     @NotNull(message = "Category ID is required")
     private Long categoryId;
 
+    private Double averageRating;
+
+    private Long ratingCount;
+
     private MultipartFile imageFile;
 
+    // key of an image uploaded through a pre-signed URL, used instead of imageFile
+    private String imageKey;
+
     private List<ReviewDTO> reviews;
 
+    // used by the menu summary projections in MenuRepository
+    public MenuDTO(Long id, String name, String description, BigDecimal price, String imageUrl,
+                   String thumbnailUrl, String mediumUrl, Long categoryId, Long ratingCount, Long ratingSum) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.price = price;
+        this.imageUrl = imageUrl;
+        this.thumbnailUrl = thumbnailUrl;
+        this.mediumUrl = mediumUrl;
+        this.categoryId = categoryId;
+        this.ratingCount = ratingCount;
+        this.averageRating = ratingCount == null || ratingCount == 0 ? null : (double) ratingSum / ratingCount;
+    }
+
 }
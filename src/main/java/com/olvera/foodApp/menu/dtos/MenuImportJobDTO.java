@@ -0,0 +1,38 @@
+package com.olvera.foodApp.menu.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.olvera.foodApp.enums.ImportJobStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MenuImportJobDTO {
+
+    private String jobId;
+
+    private ImportJobStatus status;
+
+    private long processedRows;
+
+    private long importedRows;
+
+    private long failedRows;
+
+    // first errors only, see menu.import.max-reported-errors
+    private List<RowError> errors;
+
+    private String message;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    public record RowError(long row, String error) {
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.olvera.foodApp.menu.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class MenuPageDTO {
+
+    private List<MenuDTO> menus;
+
+    // pass back as ?cursor= to get the next page, null on the last page
+    private String nextCursor;
+
+}
@@ -8,13 +8,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.util.List;
 
 @Entity
 @Data
-@Table(name = "menus")
+@Table(name = "menus", indexes = {
+        @Index(name = "idx_menus_category_id_id", columnList = "category_id, id")
+})
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
@@ -32,6 +36,32 @@ public class Menu {
 
     private String imageUrl;
 
+    // downscaled copies of imageUrl, set by MenuImageVariants once generated
+    @Column(insertable = false, updatable = false)
+    private String thumbnailUrl;
+
+    @Column(insertable = false, updatable = false)
+    private String mediumUrl;
+
+    // failed variant generations for the current image; the backfill skips the menu past a limit
+    @Column(name = "image_variant_failures", columnDefinition = "integer not null default 0",
+            insertable = false, updatable = false)
+    private Integer imageVariantFailures;
+
+    // rating aggregates are only written by MenuRepository.addRating and the rating verifier,
+    // never by a menu save, so a concurrent menu update cannot overwrite them
+    @Column(name = "rating_count", columnDefinition = "bigint not null default 0", insertable = false, updatable = false)
+    private Long ratingCount;
+
+    @Column(name = "rating_sum", columnDefinition = "bigint not null default 0", insertable = false, updatable = false)
+    private Long ratingSum;
+
+    // review count per rating, index 0 holds the 1 star reviews
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "rating_histogram", columnDefinition = "integer[] not null default '{0,0,0,0,0,0,0,0,0,0}'",
+            insertable = false, updatable = false)
+    private int[] ratingHistogram;
+
     @ManyToOne
     @JoinColumn(name = "category_id")
     private Category category;
@@ -41,4 +71,11 @@ public class Menu {
 
     @OneToMany(mappedBy = "menu", cascade = CascadeType.ALL)
     private List<Review> reviews;
+
+    public Double getAverageRating() {
+        if (ratingCount == null || ratingCount == 0) {
+            return null;
+        }
+        return (double) ratingSum / ratingCount;
+    }
 }
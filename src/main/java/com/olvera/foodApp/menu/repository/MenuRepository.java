@@ -1,8 +1,109 @@
 package com.olvera.foodApp.menu.repository;
 
+import com.olvera.foodApp.menu.dtos.MenuDTO;
 import com.olvera.foodApp.menu.entity.Menu;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface MenuRepository extends JpaRepository<Menu, Long>, JpaSpecificationExecutor<Menu> {
+
+    String MENU_SUMMARY = "SELECT new com.olvera.foodApp.menu.dtos.MenuDTO(" +
+            "m.id, m.name, m.description, m.price, m.imageUrl, m.thumbnailUrl, m.mediumUrl, " +
+            "c.id, m.ratingCount, m.ratingSum) " +
+            "FROM Menu m LEFT JOIN m.category c ";
+
+    // id, name, description, categoryId for the in-memory search index
+    @Query("SELECT m.id, m.name, m.description, c.id FROM Menu m LEFT JOIN m.category c")
+    List<Object[]> findSearchDocuments();
+
+    @Query(MENU_SUMMARY + "WHERE m.id = :id")
+    Optional<MenuDTO> findSummaryById(@Param("id") Long id);
+
+    @Query(MENU_SUMMARY + "WHERE m.id IN :ids")
+    List<MenuDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(MENU_SUMMARY + "ORDER BY m.id DESC")
+    List<MenuDTO> findAllSummaries();
+
+    @Query(MENU_SUMMARY + "WHERE c.id = :categoryId ORDER BY m.id DESC")
+    List<MenuDTO> findSummariesByCategoryId(@Param("categoryId") Long categoryId);
+
+    @Query(MENU_SUMMARY + "WHERE m.id < :before ORDER BY m.id DESC")
+    List<MenuDTO> findSummariesBefore(@Param("before") Long before, Pageable pageable);
+
+    @Query(MENU_SUMMARY + "WHERE c.id = :categoryId AND m.id < :before ORDER BY m.id DESC")
+    List<MenuDTO> findSummariesByCategoryIdBefore(
+            @Param("categoryId") Long categoryId,
+            @Param("before") Long before,
+            Pageable pageable
+    );
+
+    // ratings are 1..10 and postgres arrays are 1-based, so the rating is the histogram slot
+    @Modifying
+    @Query(value = "UPDATE menus SET rating_count = rating_count + 1, " +
+            "rating_sum = rating_sum + :rating, " +
+            "rating_histogram[:rating] = rating_histogram[:rating] + 1 " +
+            "WHERE id = :menuId", nativeQuery = true)
+    int addRating(@Param("menuId") Long menuId, @Param("rating") int rating);
+
+    @Query(value = "SELECT id FROM menus WHERE id = :menuId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("menuId") Long menuId);
+
+    @Modifying
+    @Query(value = "UPDATE menus SET " +
+            "rating_count = (SELECT COUNT(*) FROM reviews r WHERE r.menu_id = :menuId), " +
+            "rating_sum = (SELECT COALESCE(SUM(r.rating), 0) FROM reviews r WHERE r.menu_id = :menuId), " +
+            "rating_histogram = ARRAY(SELECT COUNT(r.id) FROM generate_series(1, 10) AS s(star) " +
+            "LEFT JOIN reviews r ON r.menu_id = :menuId AND r.rating = s.star " +
+            "GROUP BY s.star ORDER BY s.star)::integer[] " +
+            "WHERE id = :menuId", nativeQuery = true)
+    int rebuildRating(@Param("menuId") Long menuId);
+
+    @Query("SELECT m.id, m.ratingCount, m.ratingSum, m.ratingHistogram FROM Menu m")
+    List<Object[]> findRatingAggregates();
+
+    // only applies while the menu still shows the image the variants were made from
+    @Transactional
+    @Modifying
+    @Query("UPDATE Menu m SET m.thumbnailUrl = :thumbnailUrl, m.mediumUrl = :mediumUrl " +
+            "WHERE m.id = :menuId AND m.imageUrl = :imageUrl")
+    int updateImageVariants(
+            @Param("menuId") Long menuId,
+            @Param("imageUrl") String imageUrl,
+            @Param("thumbnailUrl") String thumbnailUrl,
+            @Param("mediumUrl") String mediumUrl
+    );
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Menu m SET m.thumbnailUrl = NULL, m.mediumUrl = NULL, m.imageVariantFailures = 0 " +
+            "WHERE m.id = :menuId")
+    int clearImageVariants(@Param("menuId") Long menuId);
+
+    // no-op when the image changed meanwhile, the new image starts with a clean count
+    @Transactional
+    @Modifying
+    @Query("UPDATE Menu m SET m.imageVariantFailures = m.imageVariantFailures + :failures " +
+            "WHERE m.id = :menuId AND m.imageUrl = :imageUrl")
+    int addImageVariantFailures(
+            @Param("menuId") Long menuId,
+            @Param("imageUrl") String imageUrl,
+            @Param("failures") int failures
+    );
+
+    // menu id, category id, image url
+    @Query("SELECT m.id, c.id, m.imageUrl FROM Menu m LEFT JOIN m.category c " +
+            "WHERE m.imageUrl IS NOT NULL AND m.thumbnailUrl IS NULL AND m.imageVariantFailures < :maxFailures " +
+            "ORDER BY m.id")
+    List<Object[]> findMenusWithoutImageVariants(@Param("maxFailures") int maxFailures, Pageable pageable);
+
 }
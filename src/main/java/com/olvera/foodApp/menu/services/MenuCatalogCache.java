@@ -0,0 +1,145 @@
+package com.olvera.foodApp.menu.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.olvera.foodApp.catalog.services.CatalogSnapshotService;
+import com.olvera.foodApp.catalog.services.ContentVersions;
+import com.olvera.foodApp.menu.dtos.MenuDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Mapped GET /api/menu results keyed by (categoryId, normalized search)
+@Component
+@Slf4j
+public class MenuCatalogCache {
+
+    public record MenuQuery(Long categoryId, String search) {
+
+        public static MenuQuery of(Long categoryId, String search) {
+            String normalized = search == null ? null : search.trim().toLowerCase(Locale.ROOT);
+            return new MenuQuery(categoryId, normalized == null || normalized.isEmpty() ? null : normalized);
+        }
+    }
+
+    // the menus version and generations a listing was loaded under; a load that overlaps an
+    // invalidation caches its result under the old ones, where no reader looks for it any more
+    private record CacheKey(MenuQuery query, long version, long epoch, long generation) {
+    }
+
+    private final Cache<CacheKey, List<MenuDTO>> cache;
+
+    // bumped by invalidateAll
+    private final AtomicLong epoch = new AtomicLong();
+
+    // bumped on every invalidation, unfiltered listings can contain any category
+    private final AtomicLong unfilteredGeneration = new AtomicLong();
+
+    private final Map<Long, AtomicLong> categoryGenerations = new ConcurrentHashMap<>();
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    private final ContentVersions contentVersions;
+
+    public MenuCatalogCache(
+            CatalogSnapshotService catalogSnapshotService,
+            ContentVersions contentVersions,
+            MeterRegistry meterRegistry,
+            @Value("${menu.cache.max-size:1000}") long maxSize,
+            @Value("${menu.cache.ttl:10m}") Duration ttl) {
+
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.contentVersions = contentVersions;
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "menuCatalog");
+    }
+
+    public List<MenuDTO> get(Long categoryId, String search, Function<MenuQuery, List<MenuDTO>> loader) {
+        CacheKey key = keyOf(MenuQuery.of(categoryId, search), contentVersions.menusVersion());
+        return cache.get(key, k -> List.copyOf(loader.apply(k.query())));
+    }
+
+    // read before the load starts, so the key reflects the data the loader can have seen. The menus
+    // version is ContentVersions' in-memory copy of the shared one: a hit costs no query, and
+    // listings cached before a write on another node retire once this node adopts its version
+    private CacheKey keyOf(MenuQuery query, long version) {
+        return new CacheKey(query, version, epoch.get(), generation(query.categoryId()).get());
+    }
+
+    private AtomicLong generation(Long categoryId) {
+        return categoryId == null
+                ? unfilteredGeneration
+                : categoryGenerations.computeIfAbsent(categoryId, id -> new AtomicLong());
+    }
+
+    /**
+     * Drops every cached listing that could contain a menu of the given categories: the
+     * category-filtered entries plus the unfiltered ones. When called inside a transaction the
+     * eviction waits for the commit. Other nodes stop using their copies once their next
+     * ContentVersions refresh adopts the menus version bumped by this write.
+     */
+    public void invalidateCategories(Long... categoryIds) {
+
+        Set<Long> affected = Arrays.stream(categoryIds)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        runAfterCommit(() -> {
+            affected.forEach(categoryId -> generation(categoryId).incrementAndGet());
+            unfilteredGeneration.incrementAndGet();
+            // the old generations and versions are unreachable now, this only frees the memory
+            long version = contentVersions.menusVersion();
+            cache.asMap().keySet().removeIf(key -> !key.equals(keyOf(key.query(), version)));
+            log.info("Menu catalog cache invalidated for categories {}", affected);
+        });
+
+        // every menu write ends up here, so the ETag version and the pre-serialized catalog follow
+        // the same signal; registered after the eviction, so it moves once this node's cache is clean
+        contentVersions.menusChanged();
+        catalogSnapshotService.requestRebuild();
+    }
+
+    public void invalidateAll() {
+        runAfterCommit(() -> {
+            epoch.incrementAndGet();
+            cache.invalidateAll();
+        });
+        contentVersions.menusChanged();
+        catalogSnapshotService.requestRebuild();
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.olvera.foodApp.menu.services;
+
+import com.olvera.foodApp.aws.AwsS3Service;
+import com.olvera.foodApp.aws.S3DeletionQueue;
+import com.olvera.foodApp.menu.repository.MenuRepository;
+import com.olvera.foodApp.upload.services.UploadService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates downscaled JPEG variants (thumbnail, medium) of menu images on a small bounded
+ * pool, after the menu change commits. Variants live at keys derived from the original, so
+ * they can be found and deleted from the image URL alone. Menus whose variants are missing
+ * (queue was full, node restarted, images uploaded before this existed) are picked up by the
+ * periodic backfill. Failures are counted on the menu row, so images that keep failing drop
+ * out of the backfill on every node and across restarts.
+ */
+@Component
+@Slf4j
+public class MenuImageVariants {
+
+    private static final String MENU_IMAGE_PREFIX = "menus/";
+
+    private static final String VARIANT_PREFIX = "menus/variants/";
+
+    private static final String CONTENT_TYPE = "image/jpeg";
+
+    private static final int MAX_FAILURES = 3;
+
+    private final AwsS3Service awsS3Service;
+
+    private final MenuRepository menuRepository;
+
+    private final MenuCatalogCache menuCatalogCache;
+
+    private final S3DeletionQueue s3DeletionQueue;
+
+    private final UploadService uploadService;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer generationTimer;
+
+    // original image URLs queued or being processed, so the backfill does not submit them twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    @Value("${menu.images.thumbnail-width:320}")
+    private int thumbnailWidth;
+
+    @Value("${menu.images.medium-width:960}")
+    private int mediumWidth;
+
+    @Value("${menu.images.jpeg-quality:0.8}")
+    private float jpegQuality;
+
+    @Value("${menu.images.max-source-pixels:40000000}")
+    private long maxSourcePixels;
+
+    @Value("${menu.images.backfill-batch-size:50}")
+    private int backfillBatchSize;
+
+    public MenuImageVariants(
+            AwsS3Service awsS3Service,
+            MenuRepository menuRepository,
+            MenuCatalogCache menuCatalogCache,
+            S3DeletionQueue s3DeletionQueue,
+            UploadService uploadService,
+            MeterRegistry meterRegistry,
+            @Value("${menu.images.threads:2}") int threads,
+            @Value("${menu.images.queue-capacity:100}") int queueCapacity) {
+
+        this.awsS3Service = awsS3Service;
+        this.menuRepository = menuRepository;
+        this.menuCatalogCache = menuCatalogCache;
+        this.s3DeletionQueue = s3DeletionQueue;
+        this.uploadService = uploadService;
+
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("menu-image-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.generationTimer = Timer.builder("menu.image.variants")
+                .description("Time spent generating the variants of one menu image")
+                .register(meterRegistry);
+
+        Gauge.builder("menu.image.variants.queue", executor, pool -> pool.getQueue().size())
+                .description("Menu images waiting for variant generation")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues variant generation for the menu's current image once the surrounding transaction
+     * (if any) commits.
+     */
+    public void generateAfterCommit(Long menuId, Long categoryId, String imageUrl) {
+
+        if (imageUrl == null || imageUrl.isEmpty()) {
+            return;
+        }
+
+        Runnable submit = () -> submit(menuId, categoryId, imageUrl);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit.run();
+                }
+            });
+        } else {
+            submit.run();
+        }
+    }
+
+    public List<String> variantKeys(String imageUrl) {
+        String baseName = baseName(imageUrl);
+        return List.of(thumbnailKey(baseName), mediumKey(baseName));
+    }
+
+    @Scheduled(
+            initialDelayString = "${menu.images.backfill-interval:300000}",
+            fixedDelayString = "${menu.images.backfill-interval:300000}")
+    public void backfill() {
+
+        List<Object[]> missing = menuRepository.findMenusWithoutImageVariants(
+                MAX_FAILURES, PageRequest.of(0, backfillBatchSize));
+
+        int submitted = 0;
+        for (Object[] row : missing) {
+            if (submit((Long) row[0], (Long) row[1], (String) row[2])) {
+                submitted++;
+            }
+        }
+
+        if (submitted > 0) {
+            log.info("Queued image variants for {} menus", submitted);
+        }
+    }
+
+    private boolean submit(Long menuId, Long categoryId, String imageUrl) {
+
+        if (!inFlight.add(imageUrl)) {
+            return false;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    generationTimer.record(() -> generate(menuId, categoryId, imageUrl));
+                } finally {
+                    inFlight.remove(imageUrl);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(imageUrl);
+            log.warn("Image variant queue is full, menu {} is left to the backfill", menuId);
+            return false;
+        }
+    }
+
+    private void generate(Long menuId, Long categoryId, String imageUrl) {
+
+        String originalKey = uploadService.ownedKey(MENU_IMAGE_PREFIX, imageUrl);
+        if (originalKey == null) {
+            // hosted outside our bucket; a same-named object under menus/ is a different image
+            menuRepository.addImageVariantFailures(menuId, imageUrl, MAX_FAILURES);
+            log.warn("Menu {} image is not in our bucket, no variants generated", menuId);
+            return;
+        }
+
+        String baseName = baseName(imageUrl);
+
+        try {
+            BufferedImage original;
+            try (InputStream inputStream = awsS3Service.downloadFile(originalKey)) {
+                original = read(inputStream);
+            }
+
+            if (original == null) {
+                // decoding again would fail the same way
+                menuRepository.addImageVariantFailures(menuId, imageUrl, MAX_FAILURES);
+                log.warn("Menu {} image {} could not be decoded, no variants generated", menuId, baseName);
+                return;
+            }
+
+            String thumbnailUrl = awsS3Service.uploadFile(thumbnailKey(baseName),
+                    encodeJpeg(resize(original, thumbnailWidth)), CONTENT_TYPE).toString();
+            String mediumUrl = awsS3Service.uploadFile(mediumKey(baseName),
+                    encodeJpeg(resize(original, mediumWidth)), CONTENT_TYPE).toString();
+
+            // no-op when the menu image changed or the menu was deleted meanwhile
+            if (menuRepository.updateImageVariants(menuId, imageUrl, thumbnailUrl, mediumUrl) > 0) {
+                menuCatalogCache.invalidateCategories(categoryId);
+                log.info("Generated image variants for menu {}", menuId);
+            } else {
+                s3DeletionQueue.enqueue(thumbnailKey(baseName), mediumKey(baseName));
+            }
+        } catch (Exception e) {
+            log.error("Failed to generate image variants for menu {}: {}", menuId, e.getMessage());
+            // e.g. the original was deleted from the bucket; the backfill gives up after a few tries
+            menuRepository.addImageVariantFailures(menuId, imageUrl, 1);
+        }
+    }
+
+    // decodes only after checking the dimensions, so a huge image cannot exhaust the heap
+    private BufferedImage read(InputStream inputStream) throws IOException {
+
+        try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+            if (imageInputStream == null) {
+                return null;
+            }
+
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInputStream, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxSourcePixels) {
+                    log.warn("Skipping image of {} pixels, limit is {}", pixels, maxSourcePixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int targetWidth) {
+
+        // never upscale, small originals are re-encoded at their own size
+        int width = Math.min(targetWidth, source.getWidth());
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+
+        BufferedImage current = source;
+        int currentWidth = source.getWidth();
+        int currentHeight = source.getHeight();
+
+        // halve in steps, a single bilinear pass from a large original aliases badly
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = currentWidth == width ? height : Math.max(height, currentHeight / 2);
+
+            BufferedImage step = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                // JPEG has no alpha, flatten transparent PNGs onto white
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, currentWidth, currentHeight);
+                graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (currentWidth != width);
+
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static String baseName(String imageUrl) {
+        return imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
+    }
+
+    private static String thumbnailKey(String baseName) {
+        return VARIANT_PREFIX + baseName + "/thumbnail.jpg";
+    }
+
+    private static String mediumKey(String baseName) {
+        return VARIANT_PREFIX + baseName + "/medium.jpg";
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        executor.shutdown();
+    }
+}
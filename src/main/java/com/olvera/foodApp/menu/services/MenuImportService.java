@@ -0,0 +1,13 @@
+package com.olvera.foodApp.menu.services;
+
+import com.olvera.foodApp.menu.dtos.MenuImportJobDTO;
+import com.olvera.foodApp.response.Response;
+import org.springframework.web.multipart.MultipartFile;
+
+public interface MenuImportService {
+
+    Response<MenuImportJobDTO> startImport(MultipartFile file);
+
+    Response<MenuImportJobDTO> getImportJob(String jobId);
+
+}
@@ -0,0 +1,571 @@
+package com.olvera.foodApp.menu.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.olvera.foodApp.category.entity.Category;
+import com.olvera.foodApp.category.repository.CategoryRepository;
+import com.olvera.foodApp.enums.ImportJobStatus;
+import com.olvera.foodApp.exceptions.BadRequestException;
+import com.olvera.foodApp.exceptions.NotFoundException;
+import com.olvera.foodApp.exceptions.ServiceUnavailableException;
+import com.olvera.foodApp.menu.dtos.MenuImportJobDTO;
+import com.olvera.foodApp.response.Response;
+import com.olvera.foodApp.upload.services.UploadService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Imports menus from a CSV (header row required) or JSON-lines file. The upload is spooled to a
+ * temp file and read as a stream on a background worker; valid rows are inserted with JDBC
+ * batches and invalid rows are reported per row without stopping the import.
+ * Columns / keys: name, description, price, categoryId or category (name), imageUrl (the URL of
+ * an image already uploaded through the menu image upload).
+ */
+@Service
+@Slf4j
+public class MenuImportServiceImpl implements MenuImportService {
+
+    private static final String INSERT_MENU =
+            "INSERT INTO menus (name, description, price, image_url, category_id) VALUES (?, ?, ?, ?, ?)";
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private static final String MENU_IMAGE_PREFIX = "menus/";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CategoryRepository categoryRepository;
+
+    private final MenuSearchIndex menuSearchIndex;
+
+    private final MenuCatalogCache menuCatalogCache;
+
+    private final UploadService uploadService;
+
+    private final ObjectMapper objectMapper;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Cache<String, ImportJob> jobs;
+
+    @Value("${menu.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${menu.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    private enum Format { CSV, JSON_LINES }
+
+    private record SourceRow(long number, Map<String, String> values, String error) {
+    }
+
+    private record MenuRow(long number, String name, String description, BigDecimal price, String imageUrl, Long categoryId) {
+    }
+
+    public MenuImportServiceImpl(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            CategoryRepository categoryRepository,
+            MenuSearchIndex menuSearchIndex,
+            MenuCatalogCache menuCatalogCache,
+            UploadService uploadService,
+            ObjectMapper objectMapper,
+            @Value("${menu.import.concurrency:1}") int concurrency,
+            @Value("${menu.import.queue-capacity:4}") int queueCapacity,
+            @Value("${menu.import.job-retention:24h}") Duration jobRetention) {
+
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.categoryRepository = categoryRepository;
+        this.menuSearchIndex = menuSearchIndex;
+        this.menuCatalogCache = menuCatalogCache;
+        this.uploadService = uploadService;
+        this.objectMapper = objectMapper;
+
+        this.executor = new ThreadPoolExecutor(
+                concurrency, concurrency,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("menu-import-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(jobRetention)
+                .build();
+    }
+
+    @Override
+    public Response<MenuImportJobDTO> startImport(MultipartFile file) {
+
+        log.info("Inside startImport()");
+
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("Import file is required");
+        }
+
+        Format format = detectFormat(file);
+
+        Path spooled;
+        try {
+            spooled = Files.createTempFile("menu-import-", format == Format.CSV ? ".csv" : ".jsonl");
+            file.transferTo(spooled);
+        } catch (IOException e) {
+            throw new RuntimeException(e.getMessage());
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID().toString());
+        jobs.put(job.id, job);
+
+        try {
+            executor.execute(() -> run(job, spooled, format));
+        } catch (RejectedExecutionException ex) {
+            jobs.invalidate(job.id);
+            deleteQuietly(spooled);
+            throw new ServiceUnavailableException("Too many imports in progress, please try again later");
+        }
+
+        return Response.<MenuImportJobDTO>builder()
+                .statusCode(HttpStatus.ACCEPTED.value())
+                .message("Import started")
+                .data(job.toDTO())
+                .build();
+    }
+
+    @Override
+    public Response<MenuImportJobDTO> getImportJob(String jobId) {
+
+        log.info("Inside getImportJob()");
+
+        ImportJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new NotFoundException("Import job not found");
+        }
+
+        return Response.<MenuImportJobDTO>builder()
+                .statusCode(HttpStatus.OK.value())
+                .message("Import job retrieved")
+                .data(job.toDTO())
+                .build();
+    }
+
+    private void run(ImportJob job, Path spooled, Format format) {
+
+        job.status = ImportJobStatus.RUNNING;
+        job.startedAt = LocalDateTime.now();
+
+        try (BufferedReader reader = Files.newBufferedReader(spooled, StandardCharsets.UTF_8)) {
+
+            // categories are resolved from memory, one query for the whole import
+            Map<String, Long> categoriesByName = new HashMap<>();
+            Set<Long> categoryIds = new HashSet<>();
+            for (Category category : categoryRepository.findAll()) {
+                categoryIds.add(category.getId());
+                if (category.getName() != null) {
+                    categoriesByName.put(category.getName().trim().toLowerCase(Locale.ROOT), category.getId());
+                }
+            }
+
+            RowReader rows = format == Format.CSV ? new CsvRowReader(reader) : new JsonLinesRowReader(reader);
+
+            List<MenuRow> batch = new ArrayList<>(batchSize);
+            SourceRow sourceRow;
+            while ((sourceRow = rows.next()) != null) {
+                job.processedRows.incrementAndGet();
+
+                if (sourceRow.error() != null) {
+                    job.rowFailed(sourceRow.number(), sourceRow.error(), maxReportedErrors);
+                    continue;
+                }
+
+                try {
+                    batch.add(toMenuRow(sourceRow, categoriesByName, categoryIds));
+                } catch (IllegalArgumentException e) {
+                    job.rowFailed(sourceRow.number(), e.getMessage(), maxReportedErrors);
+                }
+
+                if (batch.size() >= batchSize) {
+                    insertBatch(job, batch);
+                }
+            }
+            insertBatch(job, batch);
+
+            job.status = ImportJobStatus.COMPLETED;
+            log.info("Menu import {} completed: {} imported, {} failed",
+                    job.id, job.importedRows.get(), job.failedRows.get());
+        } catch (Exception e) {
+            job.status = ImportJobStatus.FAILED;
+            job.message = e.getMessage();
+            log.error("Menu import {} failed after {} rows: {}", job.id, job.processedRows.get(), e.getMessage());
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            deleteQuietly(spooled);
+
+            if (job.importedRows.get() > 0) {
+                menuSearchIndex.rebuild();
+                menuCatalogCache.invalidateAll();
+            }
+        }
+    }
+
+    private void insertBatch(ImportJob job, List<MenuRow> batch) {
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_MENU, batch, batch.size(), MenuImportServiceImpl::bind));
+            job.importedRows.addAndGet(batch.size());
+        } catch (DataAccessException e) {
+            // the batch rolled back; retry row by row so only the offending rows are reported
+            for (MenuRow row : batch) {
+                try {
+                    jdbcTemplate.update(INSERT_MENU, ps -> bind(ps, row));
+                    job.importedRows.incrementAndGet();
+                } catch (DataAccessException rowException) {
+                    Throwable cause = NestedExceptionUtils.getMostSpecificCause(rowException);
+                    job.rowFailed(row.number(), cause.getMessage(), maxReportedErrors);
+                }
+            }
+        }
+
+        batch.clear();
+    }
+
+    private static void bind(PreparedStatement ps, MenuRow row) throws SQLException {
+        ps.setString(1, row.name());
+        ps.setString(2, row.description());
+        ps.setBigDecimal(3, row.price());
+        ps.setString(4, row.imageUrl());
+        ps.setLong(5, row.categoryId());
+    }
+
+    private MenuRow toMenuRow(SourceRow sourceRow, Map<String, Long> categoriesByName, Set<Long> categoryIds) {
+
+        Map<String, String> values = sourceRow.values();
+
+        String name = text(values.get("name"));
+        if (name == null) {
+            throw new IllegalArgumentException("Name is required");
+        }
+
+        BigDecimal price;
+        try {
+            price = new BigDecimal(values.getOrDefault("price", "").trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Price is required and must be a number");
+        }
+        if (price.signum() <= 0) {
+            throw new IllegalArgumentException("Price must be positive");
+        }
+
+        Long categoryId;
+        String categoryIdValue = text(values.get("categoryid"));
+        if (categoryIdValue != null) {
+            try {
+                categoryId = Long.valueOf(categoryIdValue);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid category id: " + categoryIdValue);
+            }
+            if (!categoryIds.contains(categoryId)) {
+                throw new IllegalArgumentException("Category Not Found: " + categoryIdValue);
+            }
+        } else {
+            String categoryName = text(values.get("category"));
+            if (categoryName == null) {
+                throw new IllegalArgumentException("Category ID is required");
+            }
+            categoryId = categoriesByName.get(categoryName.toLowerCase(Locale.ROOT));
+            if (categoryId == null) {
+                throw new IllegalArgumentException("Category Not Found: " + categoryName);
+            }
+        }
+
+        // only images already uploaded to our bucket, menu deletes and variant generation act on that key
+        String imageUrl = text(values.get("imageurl"));
+        if (imageUrl != null && uploadService.ownedKey(MENU_IMAGE_PREFIX, imageUrl) == null) {
+            throw new IllegalArgumentException("imageUrl must be a menu image uploaded to this app: " + imageUrl);
+        }
+
+        return new MenuRow(sourceRow.number(), name, text(values.get("description")), price, imageUrl, categoryId);
+    }
+
+    // trims, maps blank to null and enforces the varchar(255) columns
+    private static String text(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        if (trimmed.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException("Value exceeds " + MAX_TEXT_LENGTH + " characters");
+        }
+        return trimmed;
+    }
+
+    private static String normalizeColumn(String column) {
+        return column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static Format detectFormat(MultipartFile file) {
+
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename().toLowerCase(Locale.ROOT) : "";
+        String contentType = file.getContentType() != null ? file.getContentType().toLowerCase(Locale.ROOT) : "";
+
+        if (fileName.endsWith(".csv") || contentType.startsWith("text/csv")) {
+            return Format.CSV;
+        }
+        if (fileName.endsWith(".jsonl") || fileName.endsWith(".ndjson")
+                || contentType.startsWith("application/x-ndjson") || contentType.startsWith("application/jsonl")) {
+            return Format.JSON_LINES;
+        }
+        throw new BadRequestException("Unsupported import file, upload a .csv or .jsonl file");
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete import file {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        executor.shutdown();
+    }
+
+    private interface RowReader {
+
+        // null at end of input
+        SourceRow next() throws IOException;
+    }
+
+    private static final class CsvRowReader implements RowReader {
+
+        private final BufferedReader reader;
+
+        private List<String> header;
+
+        private long rowNumber;
+
+        private CsvRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public SourceRow next() throws IOException {
+
+            if (header == null) {
+                List<String> columns = readRecord();
+                if (columns == null) {
+                    return null;
+                }
+                header = columns.stream()
+                        .map(column -> normalizeColumn(column.replace("\uFEFF", "")))
+                        .toList();
+            }
+
+            List<String> fields;
+            do {
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+
+            rowNumber++;
+
+            if (fields.size() > header.size()) {
+                return new SourceRow(rowNumber, null, "Expected " + header.size() + " columns but found " + fields.size());
+            }
+
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < fields.size(); i++) {
+                values.put(header.get(i), fields.get(i));
+            }
+            return new SourceRow(rowNumber, values, null);
+        }
+
+        // RFC 4180: quoted fields may contain commas, doubled quotes and line breaks
+        private List<String> readRecord() throws IOException {
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean readAny = false;
+
+            int c;
+            while ((c = reader.read()) != -1) {
+                readAny = true;
+                char ch = (char) c;
+
+                if (quoted) {
+                    if (ch == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        field.append(ch);
+                    }
+                } else if (ch == '"') {
+                    quoted = true;
+                } else if (ch == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (ch == '\n') {
+                    break;
+                } else if (ch != '\r') {
+                    field.append(ch);
+                }
+            }
+
+            if (!readAny) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+
+    private final class JsonLinesRowReader implements RowReader {
+
+        private final BufferedReader reader;
+
+        private long rowNumber;
+
+        private JsonLinesRowReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public SourceRow next() throws IOException {
+
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+
+            rowNumber++;
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (IOException e) {
+                return new SourceRow(rowNumber, null, "Invalid JSON");
+            }
+
+            if (node == null || !node.isObject()) {
+                return new SourceRow(rowNumber, null, "Expected a JSON object");
+            }
+
+            Map<String, String> values = new HashMap<>();
+            node.fields().forEachRemaining(entry -> {
+                if (!entry.getValue().isNull()) {
+                    values.put(normalizeColumn(entry.getKey()), entry.getValue().asText());
+                }
+            });
+            return new SourceRow(rowNumber, values, null);
+        }
+    }
+
+    private static final class ImportJob {
+
+        private final String id;
+
+        private final AtomicLong processedRows = new AtomicLong();
+
+        private final AtomicLong importedRows = new AtomicLong();
+
+        private final AtomicLong failedRows = new AtomicLong();
+
+        private final List<MenuImportJobDTO.RowError> errors = new ArrayList<>();
+
+        private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+
+        private volatile String message;
+
+        private volatile LocalDateTime startedAt;
+
+        private volatile LocalDateTime finishedAt;
+
+        private ImportJob(String id) {
+            this.id = id;
+        }
+
+        private void rowFailed(long row, String error, int maxReportedErrors) {
+            failedRows.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxReportedErrors) {
+                    errors.add(new MenuImportJobDTO.RowError(row, error));
+                }
+            }
+        }
+
+        private MenuImportJobDTO toDTO() {
+            List<MenuImportJobDTO.RowError> reportedErrors;
+            synchronized (errors) {
+                reportedErrors = List.copyOf(errors);
+            }
+
+            return MenuImportJobDTO.builder()
+                    .jobId(id)
+                    .status(status)
+                    .processedRows(processedRows.get())
+                    .importedRows(importedRows.get())
+                    .failedRows(failedRows.get())
+                    .errors(reportedErrors)
+                    .message(message)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.olvera.foodApp.menu.services;
+
+import com.olvera.foodApp.menu.entity.Menu;
+import com.olvera.foodApp.menu.repository.MenuRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Token index over menu name and description, kept in memory so searches never scan the
+ * menus table. Every query term must match a token of the menu, either exactly, as a prefix,
+ * or as a substring (found through a trigram -> token index). Name matches rank above
+ * description matches.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MenuSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final int EXACT_SCORE = 3;
+    private static final int PREFIX_SCORE = 2;
+    private static final int SUBSTRING_SCORE = 1;
+    private static final int NAME_BOOST = 2;
+
+    private final MenuRepository menuRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, IndexedMenu> menus = new HashMap<>();
+
+    // token -> ids of menus containing it; sorted so prefix lookups are a range scan
+    private final TreeMap<String, Set<Long>> postings = new TreeMap<>();
+
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+
+    private volatile boolean ready;
+
+    // writes made while a rebuild reads the menus table, replayed onto the rebuilt index;
+    // null when no rebuild is running. Guarded by the write lock
+    private List<Runnable> changesDuringRebuild;
+
+    private record IndexedMenu(Long id, Long categoryId, Set<String> nameTokens, Set<String> descriptionTokens) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${menu.search.rebuild-interval:600000}",
+            fixedDelayString = "${menu.search.rebuild-interval:600000}")
+    public synchronized void rebuild() {
+
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Object[]> documents;
+        try {
+            documents = menuRepository.findSearchDocuments();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            menus.clear();
+            postings.clear();
+            trigrams.clear();
+            for (Object[] document : documents) {
+                add((Long) document[0], (String) document[1], (String) document[2], (Long) document[3]);
+            }
+            // the query may have missed any of them, replaying is harmless when it did not
+            changesDuringRebuild.forEach(Runnable::run);
+            changesDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Menu search index built with {} menus and {} tokens", documents.size(), postings.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Menu menu) {
+        Long menuId = menu.getId();
+        String name = menu.getName();
+        String description = menu.getDescription();
+        Long categoryId = menu.getCategory() != null ? menu.getCategory().getId() : null;
+
+        apply(() -> {
+            removeInternal(menuId);
+            add(menuId, name, description, categoryId);
+        });
+    }
+
+    public void remove(Long menuId) {
+        apply(() -> removeInternal(menuId));
+    }
+
+    public void removeCategory(Long categoryId) {
+        apply(() -> menus.values().stream()
+                .filter(menu -> categoryId.equals(menu.categoryId()))
+                .map(IndexedMenu::id)
+                .toList()
+                .forEach(this::removeInternal));
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids of menus matching every term of the query, best match first and newest
+     * first among equal scores.
+     */
+    public List<Long> search(String query, Long categoryId) {
+
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+
+            for (String term : terms) {
+                Map<Long, Integer> termScores = scoreTerm(term, categoryId);
+
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Map<Long, Integer> ranked = scores;
+            return ranked.keySet().stream()
+                    .sorted(Comparator.<Long>comparingInt(ranked::get).reversed()
+                            .thenComparing(Comparator.<Long>reverseOrder()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> scoreTerm(String term, Long categoryId) {
+
+        Map<String, Integer> matchingTokens = new HashMap<>();
+
+        if (postings.containsKey(term)) {
+            matchingTokens.put(term, EXACT_SCORE);
+        }
+
+        postings.subMap(term, false, term + Character.MAX_VALUE, false).keySet()
+                .forEach(token -> matchingTokens.putIfAbsent(token, PREFIX_SCORE));
+
+        for (String token : substringCandidates(term)) {
+            if (token.contains(term)) {
+                matchingTokens.putIfAbsent(token, SUBSTRING_SCORE);
+            }
+        }
+
+        Map<Long, Integer> termScores = new HashMap<>();
+        matchingTokens.forEach((token, weight) -> {
+            for (Long menuId : postings.get(token)) {
+                IndexedMenu menu = menus.get(menuId);
+                if (categoryId != null && !categoryId.equals(menu.categoryId())) {
+                    continue;
+                }
+                int score = menu.nameTokens().contains(token) ? weight * NAME_BOOST : weight;
+                termScores.merge(menuId, score, Math::max);
+            }
+        });
+        return termScores;
+    }
+
+    private Set<String> substringCandidates(String term) {
+
+        // terms shorter than a trigram cannot use the trigram index, fall back to the vocabulary
+        if (term.length() < 3) {
+            return postings.keySet();
+        }
+
+        Set<String> candidates = null;
+        for (String trigram : trigramsOf(term)) {
+            Set<String> tokens = trigrams.get(trigram);
+            if (tokens == null) {
+                return Set.of();
+            }
+            if (candidates == null) {
+                candidates = new HashSet<>(tokens);
+            } else {
+                candidates.retainAll(tokens);
+            }
+        }
+        return candidates == null ? Set.of() : candidates;
+    }
+
+    private void add(Long menuId, String name, String description, Long categoryId) {
+
+        IndexedMenu menu = new IndexedMenu(menuId, categoryId, tokenize(name), tokenize(description));
+        menus.put(menuId, menu);
+
+        Set<String> tokens = new HashSet<>(menu.nameTokens());
+        tokens.addAll(menu.descriptionTokens());
+
+        for (String token : tokens) {
+            Set<Long> ids = postings.computeIfAbsent(token, key -> new HashSet<>());
+            if (ids.isEmpty()) {
+                trigramsOf(token).forEach(trigram -> trigrams.computeIfAbsent(trigram, key -> new HashSet<>()).add(token));
+            }
+            ids.add(menuId);
+        }
+    }
+
+    private void removeInternal(Long menuId) {
+
+        IndexedMenu menu = menus.remove(menuId);
+        if (menu == null) {
+            return;
+        }
+
+        Set<String> tokens = new HashSet<>(menu.nameTokens());
+        tokens.addAll(menu.descriptionTokens());
+
+        for (String token : tokens) {
+            Set<Long> ids = postings.get(token);
+            if (ids == null) {
+                continue;
+            }
+            ids.remove(menuId);
+            if (ids.isEmpty()) {
+                postings.remove(token);
+                for (String trigram : trigramsOf(token)) {
+                    Set<String> trigramTokens = trigrams.get(trigram);
+                    if (trigramTokens != null) {
+                        trigramTokens.remove(token);
+                        if (trigramTokens.isEmpty()) {
+                            trigrams.remove(trigram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static Set<String> trigramsOf(String token) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= token.length(); i++) {
+            result.add(token.substring(i, i + 3));
+        }
+        return result;
+    }
+}
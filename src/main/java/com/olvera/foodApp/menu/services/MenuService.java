@@ -1,7 +1,10 @@
 package com.olvera.foodApp.menu.services;
 
 import com.olvera.foodApp.menu.dtos.MenuDTO;
+import com.olvera.foodApp.menu.dtos.MenuPageDTO;
 import com.olvera.foodApp.response.Response;
+import com.olvera.foodApp.upload.dtos.PresignRequestDTO;
+import com.olvera.foodApp.upload.dtos.PresignedUploadDTO;
 
 import java.util.List;
 
@@ -11,10 +14,16 @@ public interface MenuService {
 
     Response<MenuDTO> updateMenu(MenuDTO menuDTO);
 
-    Response<MenuDTO> getMenuById(Long id);
+    Response<PresignedUploadDTO> presignMenuImage(PresignRequestDTO presignRequestDTO);
+
+    Response<MenuDTO> attachMenuImage(Long id, String imageKey);
+
+    Response<MenuDTO> getMenuById(Long id, boolean includeReviews, int reviewPage, int reviewSize);
 
     Response<?> deleteMenu(Long id);
 
     Response<List<MenuDTO>> getMenus(Long categoryId, String search);
 
+    Response<MenuPageDTO> getMenuPage(Long categoryId, String search, String cursor, int size);
+
 }
@@ -1,19 +1,28 @@
 package com.olvera.foodApp.menu.services;
 
 import com.olvera.foodApp.aws.AwsS3Service;
+import com.olvera.foodApp.aws.S3DeletionQueue;
+import com.olvera.foodApp.catalog.services.ContentVersions;
 import com.olvera.foodApp.category.entity.Category;
 import com.olvera.foodApp.category.repository.CategoryRepository;
 import com.olvera.foodApp.exceptions.BadRequestException;
 import com.olvera.foodApp.exceptions.NotFoundException;
 import com.olvera.foodApp.menu.dtos.MenuDTO;
+import com.olvera.foodApp.menu.dtos.MenuPageDTO;
 import com.olvera.foodApp.menu.entity.Menu;
 import com.olvera.foodApp.menu.repository.MenuRepository;
 import com.olvera.foodApp.response.Response;
 import com.olvera.foodApp.review.dtos.ReviewDTO;
+import com.olvera.foodApp.review.repository.ReviewRepository;
+import com.olvera.foodApp.upload.dtos.PresignRequestDTO;
+import com.olvera.foodApp.upload.dtos.PresignedUploadDTO;
+import com.olvera.foodApp.upload.services.UploadService;
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
@@ -21,16 +30,28 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MenuServiceImpl implements MenuService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final String CURSOR_PREFIX = "menu:";
+
+    private static final String MENU_IMAGE_PREFIX = "menus/";
+
     private final MenuRepository menuRepository;
 
     private final CategoryRepository categoryRepository;
@@ -39,6 +60,20 @@ public class MenuServiceImpl implements MenuService {
 
     private final AwsS3Service awsS3Service;
 
+    private final MenuCatalogCache menuCatalogCache;
+
+    private final MenuSearchIndex menuSearchIndex;
+
+    private final ReviewRepository reviewRepository;
+
+    private final UploadService uploadService;
+
+    private final MenuImageVariants menuImageVariants;
+
+    private final S3DeletionQueue s3DeletionQueue;
+
+    private final ContentVersions contentVersions;
+
     @Override
     public Response<MenuDTO> createMenu(MenuDTO menuDTO) {
 
@@ -47,19 +82,21 @@ public class MenuServiceImpl implements MenuService {
         Category category = categoryRepository.findById(menuDTO.getCategoryId())
                 .orElseThrow(() -> new NotFoundException("Category Not Found"));
 
-        String imageUrl = null;
+        String imageUrl;
 
         MultipartFile imageFile = menuDTO.getImageFile();
 
-        if (imageFile == null || imageFile.isEmpty()) {
+        if (imageFile != null && !imageFile.isEmpty()) {
+            String imageName = UUID.randomUUID() + "_" + imageFile.getOriginalFilename();
+            URL s3Url = awsS3Service.uploadFile(MENU_IMAGE_PREFIX + imageName, imageFile);
+            imageUrl = s3Url.toString();
+        } else if (menuDTO.getImageKey() != null && !menuDTO.getImageKey().isBlank()) {
+            // image already PUT to S3 through a pre-signed URL
+            imageUrl = uploadService.verifyUploadedImage(MENU_IMAGE_PREFIX, menuDTO.getImageKey());
+        } else {
             throw new BadRequestException("Menu Image is required");
         }
 
-        String imageName = UUID.randomUUID() + "_" + imageFile.getOriginalFilename();
-        URL s3Url = awsS3Service.uploadFile("menus/" + imageName, imageFile);
-
-        imageUrl = s3Url.toString();
-
         Menu menu = Menu.builder()
                 .name(menuDTO.getName())
                 .description(menuDTO.getDescription())
@@ -70,6 +107,10 @@ public class MenuServiceImpl implements MenuService {
 
         Menu savedMenu = menuRepository.save(menu);
 
+        menuSearchIndex.index(savedMenu);
+        menuCatalogCache.invalidateCategories(category.getId());
+        menuImageVariants.generateAfterCommit(savedMenu.getId(), category.getId(), savedMenu.getImageUrl());
+
         return Response.<MenuDTO>builder()
                 .statusCode(HttpStatus.OK.value())
                 .message("Menu created successfully")
@@ -89,21 +130,20 @@ public class MenuServiceImpl implements MenuService {
         Category category = categoryRepository.findById(menuDTO.getCategoryId())
                 .orElseThrow(() -> new NotFoundException("Category Not Found"));
 
-        String imageUrl = existingMenu.getImageUrl();
+        Long previousCategoryId = existingMenu.getCategory() != null ? existingMenu.getCategory().getId() : null;
+
+        String previousImageUrl = existingMenu.getImageUrl();
+        String imageUrl = previousImageUrl;
         MultipartFile imageFile = menuDTO.getImageFile();
 
         // check if a new imageFile was provided
         if (imageFile != null && !imageFile.isEmpty()) {
-            // Delete the old image from S3 if it exists
-            if (imageUrl != null && !imageUrl.isEmpty()) {
-                String keyName = imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
-                awsS3Service.deleteFile("menus/" + keyName);
-                log.info("Deleted old menu image from s3");
-            }
             // upload new image
             String imageName = UUID.randomUUID().toString() + "_" + imageFile.getOriginalFilename();
-            URL newImageUrl = awsS3Service.uploadFile("menus/" + imageName, imageFile);
+            URL newImageUrl = awsS3Service.uploadFile(MENU_IMAGE_PREFIX + imageName, imageFile);
             imageUrl = newImageUrl.toString();
+        } else if (menuDTO.getImageKey() != null && !menuDTO.getImageKey().isBlank()) {
+            imageUrl = uploadService.verifyUploadedImage(MENU_IMAGE_PREFIX, menuDTO.getImageKey());
         }
 
         if (menuDTO.getName() != null && !menuDTO.getName().isBlank()) existingMenu.setName(menuDTO.getName());
@@ -116,6 +156,18 @@ public class MenuServiceImpl implements MenuService {
 
         Menu updateMenu = menuRepository.save(existingMenu);
 
+        if (!Objects.equals(previousImageUrl, imageUrl)) {
+            // the old image is only queued for deletion once the menu no longer points at it
+            deleteMenuImage(previousImageUrl);
+            menuRepository.clearImageVariants(updateMenu.getId());
+            updateMenu.setThumbnailUrl(null);
+            updateMenu.setMediumUrl(null);
+            menuImageVariants.generateAfterCommit(updateMenu.getId(), category.getId(), imageUrl);
+        }
+
+        menuSearchIndex.index(updateMenu);
+        menuCatalogCache.invalidateCategories(previousCategoryId, category.getId());
+
         return Response.<MenuDTO>builder()
                 .statusCode(HttpStatus.OK.value())
                 .message("Menu updated successfully")
@@ -124,18 +176,67 @@ public class MenuServiceImpl implements MenuService {
     }
 
     @Override
-    public Response<MenuDTO> getMenuById(Long id) {
+    public Response<PresignedUploadDTO> presignMenuImage(PresignRequestDTO presignRequestDTO) {
+
+        log.info("Inside presignMenuImage()");
+
+        return Response.<PresignedUploadDTO>builder()
+                .statusCode(HttpStatus.OK.value())
+                .message("Upload URL issued")
+                .data(uploadService.presignImageUpload(MENU_IMAGE_PREFIX, presignRequestDTO))
+                .build();
+    }
+
+    @Override
+    public Response<MenuDTO> attachMenuImage(Long id, String imageKey) {
+
+        log.info("Inside attachMenuImage()");
+
+        Menu menu = menuRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Menu Not Found"));
+
+        String imageUrl = uploadService.verifyUploadedImage(MENU_IMAGE_PREFIX, imageKey);
+
+        String previousImageUrl = menu.getImageUrl();
+        menu.setImageUrl(imageUrl);
+
+        Menu updatedMenu = menuRepository.save(menu);
+
+        deleteMenuImage(previousImageUrl);
+
+        Long categoryId = menu.getCategory() != null ? menu.getCategory().getId() : null;
+
+        menuRepository.clearImageVariants(updatedMenu.getId());
+        updatedMenu.setThumbnailUrl(null);
+        updatedMenu.setMediumUrl(null);
+        menuImageVariants.generateAfterCommit(updatedMenu.getId(), categoryId, imageUrl);
+
+        menuCatalogCache.invalidateCategories(categoryId);
+
+        return Response.<MenuDTO>builder()
+                .statusCode(HttpStatus.OK.value())
+                .message("Menu image updated successfully")
+                .data(modelMapper.map(updatedMenu, MenuDTO.class))
+                .build();
+    }
+
+    @Override
+    public Response<MenuDTO> getMenuById(Long id, boolean includeReviews, int reviewPage, int reviewSize) {
 
         log.info("Inside getMenuById()");
 
-        Menu existingMenu = menuRepository.findById(id)
+        MenuDTO menuDTO = menuRepository.findSummaryById(id)
                 .orElseThrow(() -> new NotFoundException("Menu Not Found"));
 
-        MenuDTO menuDTO = modelMapper.map(existingMenu, MenuDTO.class);
+        // reviews are only loaded on request, one page at a time, newest first
+        if (includeReviews) {
+            Pageable pageable = PageRequest.of(Math.max(reviewPage, 0), Math.min(Math.max(reviewSize, 1), MAX_PAGE_SIZE));
+
+            List<ReviewDTO> reviewDTOS = reviewRepository.findByMenuIdOrderByIdDesc(id, pageable).stream()
+                    .map(review -> modelMapper.map(review, ReviewDTO.class))
+                    .toList();
 
-        // Sort the reviews in descending
-        if (menuDTO.getReviews() != null) {
-            menuDTO.getReviews().sort(Comparator.comparing(ReviewDTO::getId).reversed());
+            menuDTO.setReviews(reviewDTOS);
         }
 
         return Response.<MenuDTO>builder()
@@ -153,17 +254,15 @@ public class MenuServiceImpl implements MenuService {
         Menu menuToDelete = menuRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Menu Not Found"));
 
-        // Delete the image from s3 if it exists
-        String imageUrl = menuToDelete.getImageUrl();
-
-        if (imageUrl != null && !imageUrl.isEmpty()) {
-            String keyName = imageUrl.substring(imageUrl.lastIndexOf("/") + 1);
-            awsS3Service.deleteFile("menus/" + keyName);
+        menuRepository.deleteById(id);
 
-            log.info("Deleted image from s3: menus/" + keyName);
-        }
+        // Delete the image and its variants from s3 if it exists
+        deleteMenuImage(menuToDelete.getImageUrl());
 
-        menuRepository.deleteById(id);
+        menuSearchIndex.remove(id);
+        // its reviews go with it
+        contentVersions.reviewsChanged(id);
+        menuCatalogCache.invalidateCategories(menuToDelete.getCategory() != null ? menuToDelete.getCategory().getId() : null);
 
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
@@ -176,14 +275,7 @@ public class MenuServiceImpl implements MenuService {
 
         log.info("Inside getMenus()");
 
-        Specification<Menu> spec = buildSpecification(categoryId, search);
-        Sort sort = Sort.by(Sort.Direction.DESC, "id");
-
-        List<Menu> menuList = menuRepository.findAll(spec, sort);
-
-        List<MenuDTO> menuDTOS = menuList.stream()
-                .map(menu -> modelMapper.map(menu, MenuDTO.class))
-                .toList();
+        List<MenuDTO> menuDTOS = menuCatalogCache.get(categoryId, search, this::loadMenus);
 
         return Response.<List<MenuDTO>>builder()
                 .statusCode(HttpStatus.OK.value())
@@ -192,6 +284,136 @@ public class MenuServiceImpl implements MenuService {
                 .build();
     }
 
+    @Override
+    public Response<MenuPageDTO> getMenuPage(Long categoryId, String search, String cursor, int size) {
+
+        log.info("Inside getMenuPage()");
+
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Long lastSeenId = decodeCursor(cursor);
+        MenuCatalogCache.MenuQuery query = MenuCatalogCache.MenuQuery.of(categoryId, search);
+
+        // fetch one extra row to know whether another page exists
+        List<MenuDTO> menuDTOS;
+        if (query.search() != null && menuSearchIndex.isReady()) {
+            List<Long> pageIds = menuSearchIndex.search(query.search(), query.categoryId()).stream()
+                    .filter(id -> lastSeenId == null || id < lastSeenId)
+                    .sorted(Comparator.reverseOrder())
+                    .limit(pageSize + 1L)
+                    .toList();
+
+            menuDTOS = findSummariesInOrder(pageIds);
+        } else if (query.search() == null) {
+            Pageable limit = PageRequest.of(0, pageSize + 1);
+            long before = lastSeenId != null ? lastSeenId : Long.MAX_VALUE;
+
+            menuDTOS = query.categoryId() == null
+                    ? menuRepository.findSummariesBefore(before, limit)
+                    : menuRepository.findSummariesByCategoryIdBefore(query.categoryId(), before, limit);
+        } else {
+            Specification<Menu> spec = buildSpecification(query.categoryId(), query.search())
+                    .and(idBefore(lastSeenId));
+
+            menuDTOS = menuRepository.findBy(spec, fluentQuery -> fluentQuery
+                            .sortBy(Sort.by(Sort.Direction.DESC, "id"))
+                            .limit(pageSize + 1)
+                            .all())
+                    .stream()
+                    .map(menu -> modelMapper.map(menu, MenuDTO.class))
+                    .toList();
+        }
+
+        boolean hasNext = menuDTOS.size() > pageSize;
+        List<MenuDTO> pageMenus = hasNext ? menuDTOS.subList(0, pageSize) : menuDTOS;
+
+        String nextCursor = hasNext ? encodeCursor(pageMenus.get(pageMenus.size() - 1).getId()) : null;
+
+        return Response.<MenuPageDTO>builder()
+                .statusCode(HttpStatus.OK.value())
+                .message("Menu retrieved")
+                .data(new MenuPageDTO(pageMenus, nextCursor))
+                .build();
+    }
+
+    private void deleteMenuImage(String imageUrl) {
+        if (imageUrl != null && !imageUrl.isEmpty()) {
+            // images hosted elsewhere (e.g. imported) are not ours to delete
+            String key = uploadService.ownedKey(MENU_IMAGE_PREFIX, imageUrl);
+            if (key == null) {
+                log.info("Menu image {} is not in our bucket, nothing to delete", imageUrl);
+                return;
+            }
+
+            List<String> keys = new ArrayList<>(menuImageVariants.variantKeys(imageUrl));
+            keys.add(key);
+            s3DeletionQueue.enqueue(keys);
+
+            log.info("Queued deletion of menu image " + key);
+        }
+    }
+
+    private List<MenuDTO> loadMenus(MenuCatalogCache.MenuQuery query) {
+
+        if (query.search() == null) {
+            return query.categoryId() == null
+                    ? menuRepository.findAllSummaries()
+                    : menuRepository.findSummariesByCategoryId(query.categoryId());
+        }
+
+        if (menuSearchIndex.isReady()) {
+            return findSummariesInOrder(menuSearchIndex.search(query.search(), query.categoryId()));
+        }
+
+        // index still loading, fall back to the LIKE query
+        Specification<Menu> spec = buildSpecification(query.categoryId(), query.search());
+        Sort sort = Sort.by(Sort.Direction.DESC, "id");
+
+        return menuRepository.findAll(spec, sort).stream()
+                .map(menu -> modelMapper.map(menu, MenuDTO.class))
+                .toList();
+    }
+
+    private List<MenuDTO> findSummariesInOrder(List<Long> ids) {
+
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, MenuDTO> summariesById = menuRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(MenuDTO::getId, Function.identity()));
+
+        return ids.stream()
+                .map(summariesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private Specification<Menu> idBefore(Long lastSeenId) {
+        return (root, query, cb) -> lastSeenId == null ? cb.conjunction() : cb.lessThan(root.get("id"), lastSeenId);
+    }
+
+    private String encodeCursor(Long lastSeenId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastSeenId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Long decodeCursor(String cursor) {
+
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
     private Specification<Menu> buildSpecification(Long categoryId, String search) {
         return (root, query, cb) -> {
             // List to accumulate all WHERE conditions
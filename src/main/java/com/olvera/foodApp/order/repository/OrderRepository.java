@@ -1,6 +1,5 @@
 package com.olvera.foodApp.order.repository;
 
-import com.olvera.foodApp.auth_users.entity.User;
 import com.olvera.foodApp.enums.OrderStatus;
 import com.olvera.foodApp.order.entity.Order;
 import org.springframework.data.domain.Page;
@@ -14,7 +13,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Page<Order> findByOrderStatus(OrderStatus orderStatus, Pageable pageable);
 
-    List<Order> findByUserOrderByOrderDateDesc(User user);
+    List<Order> findByUser_IdOrderByOrderDateDesc(Long userId);
 
     @Query("SELECT COUNT(DISTINCT o.user.id) FROM Order o")
     long countDistinctUsers();
@@ -4,8 +4,9 @@ import com.olvera.foodApp.auth_users.entity.User;
 import com.olvera.foodApp.auth_users.services.UserService;
 import com.olvera.foodApp.cart.entity.Cart;
 import com.olvera.foodApp.cart.entity.CartItem;
+import com.olvera.foodApp.cart.repository.CartItemRepository;
 import com.olvera.foodApp.cart.repository.CartRepository;
-import com.olvera.foodApp.cart.services.CartService;
+import com.olvera.foodApp.cart.services.CartWriteBehindStore;
 import com.olvera.foodApp.email_notification.dtos.NotificationDTO;
 import com.olvera.foodApp.email_notification.services.NotificationService;
 import com.olvera.foodApp.enums.OrderStatus;
@@ -58,10 +59,12 @@ public class OrderServiceImpl implements OrderService {
 
     private final TemplateEngine templateEngine;
 
-    private final CartService cartService;
-
     private final CartRepository cartRepository;
 
+    private final CartItemRepository cartItemRepository;
+
+    private final CartWriteBehindStore cartWriteBehindStore;
+
     @Value("${base.payment.link}")
     private String basePaymentLink;
 
@@ -71,7 +74,8 @@ public class OrderServiceImpl implements OrderService {
 
         log.info("Inside placeOrderFromCart()");
 
-        User customer = userService.getCurrentLoggedInUser();
+        // the delivery address, name and email must be current, not the cached principal's
+        User customer = userService.getCurrentLoggedInUserForUpdate();
 
         log.info("user passed");
 
@@ -81,7 +85,13 @@ public class OrderServiceImpl implements OrderService {
             throw new NotFoundException("Delivery Address Not present for the user");
         }
 
-        Cart cart = cartRepository.findByUser_Id(customer.getId())
+        // write-behind mode: pending clicks are written and later clicks wait in the store until commit
+        cartWriteBehindStore.checkout(customer.getId());
+
+        // held until commit: clicks that go through the tables wait, so the order matches the cart that gets emptied
+        cartRepository.lockByUserId(customer.getId());
+
+        Cart cart = cartRepository.findWithItemsByUser_Id(customer.getId())
                 .orElseThrow(() -> new NotFoundException("Cart not found for the user"));
 
         List<CartItem> cartItems = cart.getCartItems();
@@ -112,12 +122,14 @@ public class OrderServiceImpl implements OrderService {
                 .paymentStatus(PaymentStatus.PENDING)
                 .build();
 
-        Order savedOrder = orderRepository.save(order);
-        orderItems.forEach(orderItem -> orderItem.setOrder(savedOrder));
+        // items are linked before the save so the cascade inserts them in one JDBC batch
+        orderItems.forEach(orderItem -> orderItem.setOrder(order));
 
-        orderItemRepository.saveAll(orderItems);
+        Order savedOrder = orderRepository.save(order);
 
-        cartService.clearShoppingCart();
+        // flushes the order inserts, then empties the cart with a single delete
+        cartItemRepository.deleteByCartId(cart.getId());
+        cartRepository.resetTotals(cart.getId());
 
         OrderDTO orderDTO = modelMapper.map(savedOrder, OrderDTO.class);
 
@@ -161,11 +173,7 @@ public class OrderServiceImpl implements OrderService {
             orderPage = orderRepository.findAll(pageable);
         }
 
-        Page<OrderDTO> orderDTOPage = orderPage.map(order -> {
-            OrderDTO dto = modelMapper.map(order, OrderDTO.class);
-            dto.getOrderItems().forEach(orderItemDTO -> orderItemDTO.getMenu().setReviews(null));
-            return dto;
-        });
+        Page<OrderDTO> orderDTOPage = orderPage.map(order -> modelMapper.map(order, OrderDTO.class));
 
         return Response.<Page<OrderDTO>>builder()
                 .statusCode(HttpStatus.OK.value())
@@ -179,18 +187,15 @@ public class OrderServiceImpl implements OrderService {
 
         log.info("Inside getOrderOfUser()");
 
-        User customer = userService.getCurrentLoggedInUser();
+        Long customerId = userService.getCurrentLoggedInUserId();
 
-        List<Order> orders = orderRepository.findByUserOrderByOrderDateDesc(customer);
+        List<Order> orders = orderRepository.findByUser_IdOrderByOrderDateDesc(customerId);
 
         List<OrderDTO> orderDTOS = orders.stream()
                 .map(order -> modelMapper.map(order, OrderDTO.class))
                 .toList();
 
-        orderDTOS.forEach(orderDTO -> {
-            orderDTO.setUser(null);
-            orderDTO.getOrderItems().forEach(item -> item.getMenu().setReviews(null));
-        });
+        orderDTOS.forEach(orderDTO -> orderDTO.setUser(null));
 
         return Response.<List<OrderDTO>>builder()
                 .statusCode(HttpStatus.OK.value())
@@ -202,9 +202,6 @@ public class PaymentServiceImpl implements PaymentService {
 
         paymentDTO.getUser().setRoles(null);
         paymentDTO.getOrder().setUser(null);
-        paymentDTO.getOrder().getOrderItems().forEach(item -> {
-            item.getMenu().setReviews(null);
-        });
 
 
         return Response.<PaymentDTO>builder()
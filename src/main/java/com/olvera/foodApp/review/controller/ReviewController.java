@@ -1,15 +1,22 @@
 package com.olvera.foodApp.review.controller;
 
+import com.olvera.foodApp.catalog.services.ContentVersions;
 import com.olvera.foodApp.response.Response;
+import com.olvera.foodApp.review.dtos.RatingSummaryDTO;
 import com.olvera.foodApp.review.dtos.ReviewDTO;
 import com.olvera.foodApp.review.services.ReviewService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/reviews")
@@ -18,6 +25,11 @@ public class ReviewController {
 
     private final ReviewService reviewService;
 
+    private final ContentVersions contentVersions;
+
+    @Value("${http.cache-control.reviews:no-cache}")
+    private String reviewsCacheControl;
+
     @PostMapping
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Response<ReviewDTO>> createReview(
@@ -28,15 +40,38 @@ public class ReviewController {
 
     @GetMapping("/menu-item/{menuId}")
     public ResponseEntity<Response<List<ReviewDTO>>> getReviewsForMenu(
-            @PathVariable Long menuId
+            @PathVariable Long menuId,
+            WebRequest webRequest
     ) {
-        return ResponseEntity.ok(reviewService.getReviewsForMenu(menuId));
+        return conditional(menuId, webRequest, () -> reviewService.getReviewsForMenu(menuId));
     }
 
     @GetMapping("/menu-item/average/{menuId}")
     public ResponseEntity<Response<Double>> getAverageRating(
-            @PathVariable Long menuId) {
-        return ResponseEntity.ok(reviewService.getAverageRating(menuId));
+            @PathVariable Long menuId,
+            WebRequest webRequest) {
+        return conditional(menuId, webRequest, () -> reviewService.getAverageRating(menuId));
+    }
+
+    @GetMapping("/menu-item/summary/{menuId}")
+    public ResponseEntity<Response<RatingSummaryDTO>> getRatingSummary(
+            @PathVariable Long menuId,
+            WebRequest webRequest) {
+        return conditional(menuId, webRequest, () -> reviewService.getRatingSummary(menuId));
+    }
+
+    // answers 304 from the menu's review version without running the query
+    private <T> ResponseEntity<T> conditional(Long menuId, WebRequest webRequest, Supplier<T> body) {
+
+        String eTag = contentVersions.reviewsETag(menuId);
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).header(HttpHeaders.CACHE_CONTROL, reviewsCacheControl).build();
+        }
+
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .header(HttpHeaders.CACHE_CONTROL, reviewsCacheControl)
+                .body(body.get());
     }
 
 }
@@ -0,0 +1,29 @@
+package com.olvera.foodApp.review.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RatingSummaryDTO {
+
+    private Long menuId;
+
+    private long ratingCount;
+
+    private double averageRating;
+
+    // review count per rating, index 0 holds the 1 star reviews
+    private int[] histogram;
+
+    // used by ReviewRepository.findRatingSummary
+    public RatingSummaryDTO(Long menuId, Long ratingCount, Long ratingSum, int[] histogram) {
+        this.menuId = menuId;
+        this.ratingCount = ratingCount != null ? ratingCount : 0L;
+        this.averageRating = this.ratingCount == 0 ? 0.0 : (double) ratingSum / this.ratingCount;
+        this.histogram = histogram;
+    }
+
+}
@@ -1,18 +1,28 @@
 package com.olvera.foodApp.review.repository;
 
+import com.olvera.foodApp.review.dtos.RatingSummaryDTO;
 import com.olvera.foodApp.review.entity.Review;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     List<Review> findByMenuIdOrderByIdDesc(Long menuId);
 
-    @Query("SELECT AVG(r.rating) FROM Review r WHERE r.menu.id = :menuId")
-    Double calculateAverageRatingByMenuId(@Param("menuId") Long menuId);
+    List<Review> findByMenuIdOrderByIdDesc(Long menuId, Pageable pageable);
+
+    @Query("SELECT new com.olvera.foodApp.review.dtos.RatingSummaryDTO(" +
+            "m.id, m.ratingCount, m.ratingSum, m.ratingHistogram) FROM Menu m WHERE m.id = :menuId")
+    Optional<RatingSummaryDTO> findRatingSummary(@Param("menuId") Long menuId);
+
+    // menu id, rating, review count
+    @Query("SELECT r.menu.id, r.rating, COUNT(r) FROM Review r GROUP BY r.menu.id, r.rating")
+    List<Object[]> countRatingsByMenu();
 
     @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END " +
             "FROM Review r " +
@@ -0,0 +1,100 @@
+package com.olvera.foodApp.review.services;
+
+import com.olvera.foodApp.menu.repository.MenuRepository;
+import com.olvera.foodApp.menu.services.MenuCatalogCache;
+import com.olvera.foodApp.review.repository.ReviewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the rating aggregates stored on each menu with the reviews table and rebuilds the
+ * menus that drifted (manual SQL, restores, reviews deleted through the menu cascade).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RatingAggregateVerifier {
+
+    private static final int MAX_RATING = 10;
+
+    private final MenuRepository menuRepository;
+
+    private final ReviewRepository reviewRepository;
+
+    private final MenuCatalogCache menuCatalogCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // also on startup, which backfills the aggregates of menus created before the columns existed
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${reviews.rating-verify-interval:3600000}",
+            fixedDelayString = "${reviews.rating-verify-interval:3600000}")
+    public void verify() {
+
+        Map<Long, long[]> expected = new HashMap<>();
+        for (Object[] row : reviewRepository.countRatingsByMenu()) {
+            Integer rating = (Integer) row[1];
+            if (rating == null || rating < 1 || rating > MAX_RATING) {
+                continue;
+            }
+            expected.computeIfAbsent((Long) row[0], id -> new long[MAX_RATING])[rating - 1] = (Long) row[2];
+        }
+
+        List<Long> drifted = new ArrayList<>();
+        for (Object[] row : menuRepository.findRatingAggregates()) {
+            Long menuId = (Long) row[0];
+            if (!matches(expected.getOrDefault(menuId, new long[MAX_RATING]), (Long) row[1], (Long) row[2], (int[]) row[3])) {
+                drifted.add(menuId);
+            }
+        }
+
+        if (drifted.isEmpty()) {
+            return;
+        }
+
+        drifted.forEach(this::rebuild);
+        menuCatalogCache.invalidateAll();
+
+        log.warn("Rebuilt rating aggregates of {} menus: {}", drifted.size(), drifted);
+    }
+
+    private void rebuild(Long menuId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // take the row lock first: a review insert still in flight holds it until commit, so
+            // the recount below (a fresh snapshot) sees it, or it increments after our rebuild
+            if (menuRepository.lockById(menuId).isPresent()) {
+                menuRepository.rebuildRating(menuId);
+            }
+        });
+    }
+
+    private static boolean matches(long[] histogram, Long ratingCount, Long ratingSum, int[] storedHistogram) {
+
+        if (storedHistogram == null || storedHistogram.length != MAX_RATING) {
+            return false;
+        }
+
+        long count = 0;
+        long sum = 0;
+        for (int i = 0; i < MAX_RATING; i++) {
+            count += histogram[i];
+            sum += histogram[i] * (i + 1);
+        }
+
+        return ratingCount != null && ratingCount == count
+                && ratingSum != null && ratingSum == sum
+                && Arrays.equals(histogram, Arrays.stream(storedHistogram).asLongStream().toArray());
+    }
+}
@@ -1,6 +1,7 @@
 package com.olvera.foodApp.review.services;
 
 import com.olvera.foodApp.response.Response;
+import com.olvera.foodApp.review.dtos.RatingSummaryDTO;
 import com.olvera.foodApp.review.dtos.ReviewDTO;
 
 import java.util.List;
@@ -13,4 +14,6 @@ public interface ReviewService {
 
     Response<Double> getAverageRating(Long menuId);
 
+    Response<RatingSummaryDTO> getRatingSummary(Long menuId);
+
 }
@@ -2,15 +2,18 @@ package com.olvera.foodApp.review.services;
 
 import com.olvera.foodApp.auth_users.entity.User;
 import com.olvera.foodApp.auth_users.services.UserService;
+import com.olvera.foodApp.catalog.services.ContentVersions;
 import com.olvera.foodApp.enums.OrderStatus;
 import com.olvera.foodApp.exceptions.BadRequestException;
 import com.olvera.foodApp.exceptions.NotFoundException;
 import com.olvera.foodApp.menu.entity.Menu;
 import com.olvera.foodApp.menu.repository.MenuRepository;
+import com.olvera.foodApp.menu.services.MenuCatalogCache;
 import com.olvera.foodApp.order.entity.Order;
 import com.olvera.foodApp.order.repository.OrderItemRepository;
 import com.olvera.foodApp.order.repository.OrderRepository;
 import com.olvera.foodApp.response.Response;
+import com.olvera.foodApp.review.dtos.RatingSummaryDTO;
 import com.olvera.foodApp.review.dtos.ReviewDTO;
 import com.olvera.foodApp.review.entity.Review;
 import com.olvera.foodApp.review.repository.ReviewRepository;
@@ -41,6 +44,10 @@ public class ReviewServiceImpl implements ReviewService {
 
     private final UserService userService;
 
+    private final MenuCatalogCache menuCatalogCache;
+
+    private final ContentVersions contentVersions;
+
 
     @Override
     @Transactional
@@ -48,8 +55,8 @@ public class ReviewServiceImpl implements ReviewService {
 
         log.info("Inside createReview()");
 
-        // Get current user
-        User user = userService.getCurrentLoggedInUser();
+        // Get current user, fresh: the response carries the user's name
+        User user = userService.getCurrentLoggedInUserForUpdate();
 
         // Validate required fields
         if (reviewDTO.getOrderId() == null || reviewDTO.getMenuId() == null) {
@@ -105,6 +112,13 @@ public class ReviewServiceImpl implements ReviewService {
 
         Review saveReview = reviewRepository.save(review);
 
+        // same transaction as the insert, so the aggregates never count a review that rolled back
+        menuRepository.addRating(menu.getId(), reviewDTO.getRating());
+
+        // cached menu listings carry the average rating
+        menuCatalogCache.invalidateCategories(menu.getCategory() != null ? menu.getCategory().getId() : null);
+        contentVersions.reviewsChanged(menu.getId());
+
         // Return response with review data
         ReviewDTO responseDto = modelMapper.map(saveReview, ReviewDTO.class);
         responseDto.setUserName(user.getName());
@@ -140,12 +154,29 @@ public class ReviewServiceImpl implements ReviewService {
 
         log.info("Inside getAverageRating()");
 
-        Double averageRating = reviewRepository.calculateAverageRatingByMenuId(menuId);
+        double averageRating = reviewRepository.findRatingSummary(menuId)
+                .map(RatingSummaryDTO::getAverageRating)
+                .orElse(0.0);
 
         return Response.<Double>builder()
                 .statusCode(HttpStatus.OK.value())
                 .message("Average rating retrieved successfully")
-                .data(averageRating != null ? averageRating : 0.0)
+                .data(averageRating)
+                .build();
+    }
+
+    @Override
+    public Response<RatingSummaryDTO> getRatingSummary(Long menuId) {
+
+        log.info("Inside getRatingSummary()");
+
+        RatingSummaryDTO ratingSummary = reviewRepository.findRatingSummary(menuId)
+                .orElseThrow(() -> new NotFoundException("Menu item not found"));
+
+        return Response.<RatingSummaryDTO>builder()
+                .statusCode(HttpStatus.OK.value())
+                .message("Rating summary retrieved successfully")
+                .data(ratingSummary)
                 .build();
     }
 }
@@ -0,0 +1,59 @@
+package com.olvera.foodApp.role.services;
+
+import com.olvera.foodApp.role.entity.Role;
+import com.olvera.foodApp.role.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Roles change a handful of times in the life of the app, so they are served from memory
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+
+    private volatile List<Role> roles = List.of();
+
+    private volatile Map<String, Role> rolesByName = Map.of();
+
+    @PostConstruct
+    private void init() {
+        refresh();
+    }
+
+    @Scheduled(
+            initialDelayString = "${roles.refresh-interval:300000}",
+            fixedDelayString = "${roles.refresh-interval:300000}")
+    public void refresh() {
+
+        List<Role> allRoles = roleRepository.findAll(Sort.by(Sort.Direction.ASC, "id"));
+
+        Map<String, Role> byName = new HashMap<>();
+        allRoles.stream()
+                .filter(role -> role.getName() != null)
+                .forEach(role -> byName.put(role.getName(), role));
+
+        this.roles = List.copyOf(allRoles);
+        this.rolesByName = Map.copyOf(byName);
+
+        log.info("Role registry loaded with {} roles", allRoles.size());
+    }
+
+    public Optional<Role> findByName(String name) {
+        return Optional.ofNullable(name).map(rolesByName::get);
+    }
+
+    public List<Role> getAll() {
+        return roles;
+    }
+}
@@ -6,6 +6,7 @@ import com.olvera.foodApp.response.Response;
 import com.olvera.foodApp.role.dtos.RoleDTO;
 import com.olvera.foodApp.role.entity.Role;
 import com.olvera.foodApp.role.repository.RoleRepository;
+import com.olvera.foodApp.role.services.RoleRegistry;
 import com.olvera.foodApp.role.services.RoleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,12 +25,15 @@ public class RoleServiceImpl implements RoleService {
 
     private final ModelMapper modelMapper;
 
+    private final RoleRegistry roleRegistry;
+
     @Override
     public Response<RoleDTO> createRole(RoleDTO roleDTO) {
 
         Role role = modelMapper.map(roleDTO, Role.class);
 
         Role savedRole = roleRepository.save(role);
+        roleRegistry.refresh();
 
         return Response.<RoleDTO>builder()
                 .statusCode(HttpStatus.OK.value())
@@ -44,13 +48,14 @@ public class RoleServiceImpl implements RoleService {
         Role existingRole = roleRepository.findById(roleDTO.getId())
                 .orElseThrow(() -> new NotFoundException("Role not found"));
 
-        if (roleRepository.findByName(roleDTO.getName()).isPresent()) {
+        if (roleRegistry.findByName(roleDTO.getName()).isPresent()) {
             throw new BadRequestException("Role with name already exists");
         }
 
         existingRole.setName(roleDTO.getName());
 
         Role updatedRole = roleRepository.save(existingRole);
+        roleRegistry.refresh();
 
         return Response.<RoleDTO>builder()
                 .statusCode(HttpStatus.OK.value())
@@ -63,7 +68,7 @@ public class RoleServiceImpl implements RoleService {
     @Override
     public Response<List<RoleDTO>> getAllRoles() {
 
-        List<Role> roles = roleRepository.findAll();
+        List<Role> roles = roleRegistry.getAll();
 
         List<RoleDTO> roleDTOS = roles.stream()
                 .map(role -> modelMapper.map(role, RoleDTO.class))
@@ -83,6 +88,7 @@ public class RoleServiceImpl implements RoleService {
         }
 
         roleRepository.deleteById(id);
+        roleRegistry.refresh();
 
         return Response.builder()
                 .statusCode(HttpStatus.OK.value())
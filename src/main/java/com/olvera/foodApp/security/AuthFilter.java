@@ -1,6 +1,7 @@
 package com.olvera.foodApp.security;
 
 import com.olvera.foodApp.exceptions.CustomAuthenticationEntryPoint;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -27,6 +29,7 @@ public class AuthFilter extends OncePerRequestFilter {
     private final JwtUtils jwtUtils;
     private final CustomUserDetailService customUserDetailService;
     private final CustomAuthenticationEntryPoint customAuthenticationEntryPoint;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
 
     @Override
     protected void doFilterInternal(
@@ -38,23 +41,31 @@ public class AuthFilter extends OncePerRequestFilter {
         String token = getTokenFromRequest(request);
 
         if (token != null) {
-            String email;
+            Claims claims;
 
             try {
-                email = jwtUtils.getUsernameFromToken(token);
+                claims = jwtUtils.verifyToken(token);
             } catch (Exception ex) {
                 AuthenticationException authenticationException = new BadCredentialsException(ex.getMessage());
                 customAuthenticationEntryPoint.commence(request, response, authenticationException);
                 return;
             }
 
-            UserDetails userDetails = customUserDetailService.loadUserByUsername(email);
-            if (StringUtils.hasText(email) && jwtUtils.isTokenValid(token, userDetails)) {
-                UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities()
-                );
-                authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            String email = claims.getSubject();
+
+            if (StringUtils.hasText(email)) {
+                UserDetails userDetails = jwtUtils.isSelfContained(claims)
+                        ? jwtUtils.getAuthUserFromClaims(claims)
+                        : customUserDetailService.loadUserByUsername(email);
+
+                if (userDetails instanceof AuthUser authUser
+                        && tokenRevocationRegistry.isRevoked(authUser.getUser().getId())) {
+                    customAuthenticationEntryPoint.commence(request, response,
+                            new DisabledException("Account not active, Please contact customer support"));
+                    return;
+                }
+
+                authenticate(request, claims, userDetails);
             }
         }
 
@@ -65,6 +76,16 @@ public class AuthFilter extends OncePerRequestFilter {
         }
     }
 
+    private void authenticate(HttpServletRequest request, Claims claims, UserDetails userDetails) {
+        if (jwtUtils.isTokenValid(claims, userDetails)) {
+            UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(
+                    userDetails, null, userDetails.getAuthorities()
+            );
+            authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+        }
+    }
+
     private String getTokenFromRequest(HttpServletRequest request) {
         String tokenWithBearer = request.getHeader("Authorization");
         if (tokenWithBearer != null && tokenWithBearer.startsWith("Bearer ")) {
@@ -15,6 +15,9 @@ public class AuthUser implements UserDetails {
 
     private User user;
 
+    // true when the user was rebuilt from token claims and only carries id, email and roles
+    private boolean claimsOnly;
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return user.getRoles()
@@ -0,0 +1,45 @@
+package com.olvera.foodApp.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+@Component
+@Slf4j
+public class AuthUserCache {
+
+    private final Cache<String, AuthUser> cache;
+
+    public AuthUserCache(
+            MeterRegistry meterRegistry,
+            @Value("${security.auth-cache.max-size:10000}") long maxSize,
+            @Value("${security.auth-cache.ttl:5m}") Duration ttl) {
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        // exposes cache.gets{result=hit|miss}, cache.evictions, cache.size under /actuator/metrics
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "authUsers");
+    }
+
+    public AuthUser get(String email, Function<String, AuthUser> loader) {
+        return cache.get(email, loader);
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+            log.info("Evicted cached principal for {}", email);
+        }
+    }
+}
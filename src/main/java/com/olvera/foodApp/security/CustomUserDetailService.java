@@ -15,10 +15,16 @@ public class CustomUserDetailService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    private final AuthUserCache authUserCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return authUserCache.get(username, this::loadFromDatabase);
+    }
+
+    private AuthUser loadFromDatabase(String email) {
 
-        User user = userRepository.findByEmail(username).orElseThrow(
+        User user = userRepository.findByEmail(email).orElseThrow(
                 () -> new NotFoundException("User not found"));
 
         return AuthUser.builder()
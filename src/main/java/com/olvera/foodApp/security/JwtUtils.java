@@ -1,6 +1,12 @@
 package com.olvera.foodApp.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.olvera.foodApp.auth_users.entity.User;
+import com.olvera.foodApp.role.entity.Role;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
@@ -11,23 +17,68 @@ import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
 public class JwtUtils {
 
     private static final long EXPIRATION_TIME = 30L * 24 * 60 * 60 * 1000;
+
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLES = "roles";
+    private static final String CLAIM_TOKEN_VERSION = "ver";
+
+    // bump when the claim layout changes so tokens in the old format fall back to the DB lookup
+    private static final int TOKEN_VERSION = 1;
+
     private SecretKey key;
 
+    // JwtParser is immutable and thread-safe, so a single instance serves every request
+    private JwtParser jwtParser;
+
+    // SHA-256 digest of recently verified tokens -> their claims, dropped when the token expires
+    private Cache<String, Claims> verifiedTokens;
+
     @Value("${jwt.secret-key}")
     private String secreteJwtString;
 
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${jwt.self-contained:false}")
+    private boolean selfContainedTokens;
+
     @PostConstruct
     private void init() {
         byte[] keyByte = secreteJwtString.getBytes(StandardCharsets.UTF_8);
         this.key = new SecretKeySpec(keyByte, "HmacSHA256");
+        this.jwtParser = Jwts.parser().verifyWith(key).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        long millisLeft = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(millisLeft, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(String email) {
@@ -39,20 +90,98 @@ public class JwtUtils {
                 .compact();
     }
 
+    public String generateToken(User user) {
+
+        if (!selfContainedTokens) {
+            return generateToken(user.getEmail());
+        }
+
+        List<String> roleNames = user.getRoles().stream()
+                .map(Role::getName)
+                .toList();
+
+        return Jwts.builder()
+                .subject(user.getEmail())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLES, roleNames)
+                .claim(CLAIM_TOKEN_VERSION, TOKEN_VERSION)
+                .issuedAt(new Date(System.currentTimeMillis()))
+                .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .signWith(key)
+                .compact();
+    }
+
+    public boolean isSelfContained(Claims claims) {
+        Object version = claims.get(CLAIM_TOKEN_VERSION);
+        return selfContainedTokens
+                && version instanceof Number number && number.intValue() == TOKEN_VERSION
+                && claims.get(CLAIM_USER_ID) instanceof Number
+                && claims.get(CLAIM_ROLES) instanceof List<?>;
+    }
+
+    public AuthUser getAuthUserFromClaims(Claims claims) {
+
+        Long userId = ((Number) claims.get(CLAIM_USER_ID)).longValue();
+
+        List<Role> roles = ((List<?>) claims.get(CLAIM_ROLES)).stream()
+                .map(roleName -> Role.builder().name(String.valueOf(roleName)).build())
+                .toList();
+
+        User user = User.builder()
+                .id(userId)
+                .email(claims.getSubject())
+                .roles(roles)
+                .isActive(true)
+                .build();
+
+        return AuthUser.builder()
+                .user(user)
+                .claimsOnly(true)
+                .build();
+    }
+
+    /**
+     * Parses and verifies the token once and returns its claims. Tokens verified recently are
+     * served from memory without repeating the signature check.
+     */
+    public Claims verifyToken(String token) {
+        String digest = digest(token);
+
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && !isTokenExpired(cached)) {
+            return cached;
+        }
+
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
     public String getUsernameFromToken(String token) {
-        return extractClaims(token, Claims::getSubject);
+        return verifyToken(token).getSubject();
     }
 
-    private <T> T extractClaims(String token, Function<Claims, T> claimsTFunction) {
-        return claimsTFunction.apply(Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return (username.equals(userDetails.getUsername()) && !isTokenExpired(claims));
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(verifyToken(token), userDetails);
+    }
+
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaims(token, Claims::getExpiration).before(new Date());
+    private String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -0,0 +1,137 @@
+package com.olvera.foodApp.security;
+
+import com.olvera.foodApp.exceptions.ServiceUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt hashing on a dedicated, bounded pool so login and registration bursts cannot
+ * take over the servlet threads. When the queue is full callers get a 503 instead of waiting.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private static final String BUSY_MESSAGE = "Authentication service is busy, please try again shortly";
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer hashTimer;
+
+    private final long timeoutMillis;
+
+    // shared by all nodes, so a password is never rehashed back and forth between them
+    private final int strength;
+
+    private final BCryptPasswordEncoder encoder;
+
+    public PasswordHashingService(
+            MeterRegistry meterRegistry,
+            @Value("${security.password.threads:0}") int threads,
+            @Value("${security.password.queue-capacity:200}") int queueCapacity,
+            @Value("${security.password.timeout-ms:5000}") long timeoutMillis,
+            @Value("${security.password.strength:12}") int strength) {
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.timeoutMillis = timeoutMillis;
+        this.strength = strength;
+        this.encoder = new BCryptPasswordEncoder(strength);
+
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing or verifying a password")
+                .register(meterRegistry);
+
+        Gauge.builder("auth.password.hash.queue", executor, pool -> pool.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+
+        Gauge.builder("auth.password.hash.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing tasks currently running")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    private void warmUp() {
+        // also tells operators what the configured strength costs on this hardware
+        long start = System.nanoTime();
+        encoder.encode("warm-up");
+        log.info("BCrypt strength {} takes {} ms on this node", strength, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        // only upgrade; hashes stronger than the target are left alone
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    private <T> T submit(Callable<T> task) {
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> hashTimer.recordCallable(task));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Password hashing queue is full ({} waiting)", executor.getQueue().size());
+            throw new ServiceUnavailableException(BUSY_MESSAGE);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw new ServiceUnavailableException(BUSY_MESSAGE);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(BUSY_MESSAGE);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        executor.shutdown();
+    }
+}
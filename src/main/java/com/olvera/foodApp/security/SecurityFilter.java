@@ -37,6 +37,7 @@ public class SecurityFilter {
                 .authorizeHttpRequests(req ->
                         req.requestMatchers(
                                 "/api/auth/**",
+                                "/api/catalog/**",
                                 "/api/categories/**",
                                 "/api/menu/**",
                                 "/api/reviews/**",
@@ -0,0 +1,142 @@
+package com.olvera.foodApp.security;
+
+import com.olvera.foodApp.auth_users.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory set of deactivated users whose tokens must be rejected. A bloom filter answers the
+ * common "not revoked" case without touching the exact set; hits are confirmed against it.
+ * Each node reloads the set from the users table on a fixed delay so deactivations made on
+ * other nodes converge.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationRegistry {
+
+    private final UserRepository userRepository;
+
+    @Value("${security.revocation.expected-insertions:100000}")
+    private int expectedInsertions;
+
+    @Value("${security.revocation.refresh-interval:60000}")
+    private long refreshIntervalMillis;
+
+    // user id -> when revoke() was called; kept until a refresh has read the deactivation back
+    private final Map<Long, Long> revokedSinceRefresh = new ConcurrentHashMap<>();
+
+    private volatile RevokedUsers revokedUsers = new RevokedUsers(1);
+
+    @PostConstruct
+    private void init() {
+        refresh();
+    }
+
+    @Scheduled(
+            initialDelayString = "${security.revocation.refresh-interval:60000}",
+            fixedDelayString = "${security.revocation.refresh-interval:60000}")
+    public void refresh() {
+
+        long startedAt = System.currentTimeMillis();
+
+        List<Long> inactiveUserIds = userRepository.findInactiveUserIds();
+
+        RevokedUsers rebuilt = new RevokedUsers(Math.max(expectedInsertions, inactiveUserIds.size() * 2));
+        inactiveUserIds.forEach(rebuilt::add);
+        this.revokedUsers = rebuilt;
+
+        // replayed after the swap: a revoke() racing it may have reached only the old filter
+        revokedSinceRefresh.keySet().forEach(rebuilt::add);
+
+        // revoke() runs before its transaction commits, so only entries the query returned are
+        // covered; others stay for a grace period in case the deactivation commits later
+        Set<Long> covered = new HashSet<>(inactiveUserIds);
+        long graceStart = startedAt - refreshIntervalMillis;
+        revokedSinceRefresh.entrySet()
+                .removeIf(entry -> covered.contains(entry.getKey()) || entry.getValue() < graceStart);
+
+        log.info("Token revocation set refreshed with {} users", inactiveUserIds.size());
+    }
+
+    public void revoke(Long userId) {
+        revokedSinceRefresh.put(userId, System.currentTimeMillis());
+        revokedUsers.add(userId);
+    }
+
+    public boolean isRevoked(Long userId) {
+        return userId != null && revokedUsers.contains(userId);
+    }
+
+    private static final class RevokedUsers {
+
+        private static final int HASH_FUNCTIONS = 7;
+
+        private final AtomicLongArray bits;
+
+        private final int bitCount;
+
+        private final Set<Long> userIds = ConcurrentHashMap.newKeySet();
+
+        private RevokedUsers(int expectedInsertions) {
+            // ~10 bits per entry keeps the false-positive rate around 1% with 7 hash functions
+            long size = Math.max(64L, expectedInsertions * 10L);
+            this.bitCount = (int) Math.min(size, Integer.MAX_VALUE - 63);
+            this.bits = new AtomicLongArray((bitCount + 63) / 64);
+        }
+
+        private void add(long userId) {
+            userIds.add(userId);
+
+            long hash1 = mix(userId);
+            long hash2 = mix(hash1);
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                int bit = (int) Math.floorMod(hash1 + i * hash2, (long) bitCount);
+                setBit(bit);
+            }
+        }
+
+        private boolean contains(long userId) {
+            long hash1 = mix(userId);
+            long hash2 = mix(hash1);
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                int bit = (int) Math.floorMod(hash1 + i * hash2, (long) bitCount);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return userIds.contains(userId);
+        }
+
+        private void setBit(int bit) {
+            int index = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(index);
+                if ((current & mask) != 0) {
+                    return;
+                }
+            } while (!bits.compareAndSet(index, current, current | mask));
+        }
+
+        // SplitMix64 finalizer
+        private static long mix(long value) {
+            long z = value + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.olvera.foodApp.upload.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ConfirmUploadDTO {
+
+    @NotBlank(message = "Key is required")
+    private String key;
+
+}
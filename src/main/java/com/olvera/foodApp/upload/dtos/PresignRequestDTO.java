@@ -0,0 +1,24 @@
+package com.olvera.foodApp.upload.dtos;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PresignRequestDTO {
+
+    @NotBlank(message = "File name is required")
+    private String fileName;
+
+    @NotBlank(message = "Content type is required")
+    private String contentType;
+
+    // signed into the URL, S3 rejects a PUT with any other length
+    @NotNull(message = "Content length is required")
+    @Positive(message = "Content length must be positive")
+    private Long contentLength;
+
+}
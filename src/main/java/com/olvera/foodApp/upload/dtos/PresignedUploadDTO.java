@@ -0,0 +1,28 @@
+package com.olvera.foodApp.upload.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PresignedUploadDTO {
+
+    // pass back to the confirm endpoint once the PUT succeeded
+    private String key;
+
+    private String uploadUrl;
+
+    private Instant expiresAt;
+
+    // headers the PUT must carry exactly as given, they are part of the signature
+    private Map<String, List<String>> headers;
+
+}
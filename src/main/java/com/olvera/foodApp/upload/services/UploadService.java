@@ -0,0 +1,15 @@
+package com.olvera.foodApp.upload.services;
+
+import com.olvera.foodApp.upload.dtos.PresignRequestDTO;
+import com.olvera.foodApp.upload.dtos.PresignedUploadDTO;
+
+public interface UploadService {
+
+    PresignedUploadDTO presignImageUpload(String keyPrefix, PresignRequestDTO presignRequestDTO);
+
+    String verifyUploadedImage(String keyPrefix, String key);
+
+    // key of an image URL this app stored under keyPrefix, or null for any other URL
+    String ownedKey(String keyPrefix, String url);
+
+}
@@ -0,0 +1,119 @@
+package com.olvera.foodApp.upload.services;
+
+import com.olvera.foodApp.aws.AwsS3Service;
+import com.olvera.foodApp.exceptions.BadRequestException;
+import com.olvera.foodApp.upload.dtos.PresignRequestDTO;
+import com.olvera.foodApp.upload.dtos.PresignedUploadDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Issues pre-signed PUT URLs so clients upload images straight to S3, and checks uploaded keys
+ * before they are attached to a menu or a user.
+ */
+@Service
+@Slf4j
+public class UploadServiceImpl implements UploadService {
+
+    private static final Pattern UNSAFE_FILE_NAME_CHARS = Pattern.compile("[^A-Za-z0-9._-]");
+
+    private static final int MAX_FILE_NAME_LENGTH = 100;
+
+    private final AwsS3Service awsS3Service;
+
+    private final long maxImageSize;
+
+    private final List<String> allowedContentTypes;
+
+    public UploadServiceImpl(
+            AwsS3Service awsS3Service,
+            @Value("${uploads.max-image-size:10MB}") DataSize maxImageSize,
+            @Value("${uploads.allowed-content-types:image/jpeg,image/png}") List<String> allowedContentTypes) {
+
+        this.awsS3Service = awsS3Service;
+        this.maxImageSize = maxImageSize.toBytes();
+        this.allowedContentTypes = allowedContentTypes.stream()
+                .map(type -> type.trim().toLowerCase(Locale.ROOT))
+                .toList();
+    }
+
+    @Override
+    public PresignedUploadDTO presignImageUpload(String keyPrefix, PresignRequestDTO presignRequestDTO) {
+
+        log.info("Inside presignImageUpload()");
+
+        String contentType = presignRequestDTO.getContentType().trim().toLowerCase(Locale.ROOT);
+        if (!allowedContentTypes.contains(contentType)) {
+            throw new BadRequestException("Unsupported image type: " + presignRequestDTO.getContentType());
+        }
+
+        if (presignRequestDTO.getContentLength() > maxImageSize) {
+            throw new BadRequestException("Image exceeds the maximum size of " + maxImageSize + " bytes");
+        }
+
+        String key = keyPrefix + UUID.randomUUID() + "_" + safeFileName(presignRequestDTO.getFileName());
+
+        return awsS3Service.presignUpload(key, contentType, presignRequestDTO.getContentLength());
+    }
+
+    @Override
+    public String verifyUploadedImage(String keyPrefix, String key) {
+
+        log.info("Inside verifyUploadedImage()");
+
+        if (!isFlatKey(keyPrefix, key)) {
+            throw new BadRequestException("Invalid upload key");
+        }
+
+        if (!awsS3Service.exists(key)) {
+            throw new BadRequestException("Upload not found, PUT the file before confirming it");
+        }
+
+        return awsS3Service.getUrl(key).toString();
+    }
+
+    @Override
+    public String ownedKey(String keyPrefix, String url) {
+
+        if (url == null) {
+            return null;
+        }
+
+        String path;
+        try {
+            path = new URI(url).getPath();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        if (path == null) {
+            return null;
+        }
+
+        // our URLs are exactly what getUrl returns for a flat key under the prefix
+        String key = keyPrefix + path.substring(path.lastIndexOf('/') + 1);
+        if (!isFlatKey(keyPrefix, key) || !awsS3Service.getUrl(key).toString().equals(url)) {
+            return null;
+        }
+        return key;
+    }
+
+    // keys are flat under their prefix, anything else was not issued by presignImageUpload
+    private static boolean isFlatKey(String keyPrefix, String key) {
+        return key != null && key.startsWith(keyPrefix) && key.length() > keyPrefix.length()
+                && key.indexOf('/', keyPrefix.length()) < 0 && !key.contains("..");
+    }
+
+    private static String safeFileName(String fileName) {
+        String safe = UNSAFE_FILE_NAME_CHARS.matcher(fileName.trim()).replaceAll("_");
+        return safe.length() > MAX_FILE_NAME_LENGTH ? safe.substring(safe.length() - MAX_FILE_NAME_LENGTH) : safe;
+    }
+}
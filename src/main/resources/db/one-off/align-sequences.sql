@@ -0,0 +1,19 @@
+-- One-off migration, run once by hand (psql -1 -f) before deploying the pooled sequences of
+-- orders, order_items, carts and cart_items (@SequenceGenerator, allocationSize = 50). Rows created
+-- while these tables used IDENTITY ids sit in the range the new sequences would hand out first.
+--
+-- Hibernate's pooled optimizer treats a sequence value v as the block (v - 50, v], so every
+-- sequence is moved to at least max(id) + 50. That also takes the sequences past their start
+-- value, the only value the optimizer treats specially (it then draws a second value and uses
+-- everything below it). Past that point every nextval, Hibernate's or a native query's, owns a
+-- block of its own; see CartItemRepository.upsertQuantity. Safe to run again.
+
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS carts_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS cart_items_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('orders_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM orders) + 50, (SELECT last_value FROM orders_seq)));
+SELECT setval('order_items_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM order_items) + 50, (SELECT last_value FROM order_items_seq)));
+SELECT setval('carts_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM carts) + 50, (SELECT last_value FROM carts_seq)));
+SELECT setval('cart_items_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM cart_items) + 50, (SELECT last_value FROM cart_items_seq)));
@@ -0,0 +1,58 @@
+-- One-off migration, run once by hand (psql -1 -f) before deploying the unique keys mapped on
+-- Cart (uk_carts_user_id) and CartItem (uk_cart_items_cart_menu). ddl-auto cannot add them while
+-- duplicates exist, and the cart upserts (ON CONFLICT) fail without them.
+--
+-- Nothing a customer put in a cart is dropped:
+--   * a user with several carts keeps the most recently modified one, the items of the others
+--     move into it;
+--   * several rows for the same menu in one cart are summed into the oldest row;
+--   * the totals of every cart are recounted afterwards.
+-- Run the two SELECTs first to review what will be merged.
+
+-- users with more than one cart, and the cart each of them keeps
+SELECT user_id, COUNT(*) AS carts,
+       (ARRAY_AGG(id ORDER BY last_modified DESC, id DESC))[1] AS keep_id
+FROM carts WHERE user_id IS NOT NULL
+GROUP BY user_id HAVING COUNT(*) > 1;
+
+-- menus that appear more than once in a cart
+SELECT cart_id, menu_id, COUNT(*) AS rows, SUM(quantity) AS quantity
+FROM cart_items
+GROUP BY cart_id, menu_id HAVING COUNT(*) > 1;
+
+BEGIN;
+
+-- indexes created by the startup beans this migration replaces; the constraints below take their names
+DROP INDEX IF EXISTS uk_carts_user_id;
+DROP INDEX IF EXISTS uk_cart_items_cart_menu;
+
+CREATE TEMP TABLE cart_survivors ON COMMIT DROP AS
+SELECT DISTINCT ON (user_id) user_id, id AS keep_id
+FROM carts WHERE user_id IS NOT NULL
+ORDER BY user_id, last_modified DESC, id DESC;
+
+UPDATE cart_items ci SET cart_id = s.keep_id
+FROM carts c JOIN cart_survivors s ON s.user_id = c.user_id
+WHERE ci.cart_id = c.id AND c.id <> s.keep_id;
+
+DELETE FROM carts c USING cart_survivors s
+WHERE c.user_id = s.user_id AND c.id <> s.keep_id;
+
+WITH duplicates AS (
+    SELECT id, FIRST_VALUE(id) OVER (PARTITION BY cart_id, menu_id ORDER BY id) AS keep_id,
+           SUM(quantity) OVER (PARTITION BY cart_id, menu_id) AS total
+    FROM cart_items),
+merged AS (
+    UPDATE cart_items ci SET quantity = d.total, sub_total = ci.price_per_unit * d.total
+    FROM duplicates d WHERE ci.id = d.id AND d.id = d.keep_id AND ci.quantity <> d.total)
+DELETE FROM cart_items ci USING duplicates d WHERE ci.id = d.id AND d.id <> d.keep_id;
+
+-- same recount as CartRepository.recalculateTotals
+UPDATE carts c SET
+    total_amount = COALESCE((SELECT SUM(ci.sub_total) FROM cart_items ci WHERE ci.cart_id = c.id), 0),
+    item_count = COALESCE((SELECT SUM(ci.quantity) FROM cart_items ci WHERE ci.cart_id = c.id), 0);
+
+ALTER TABLE carts ADD CONSTRAINT uk_carts_user_id UNIQUE (user_id);
+ALTER TABLE cart_items ADD CONSTRAINT uk_cart_items_cart_menu UNIQUE (cart_id, menu_id);
+
+COMMIT;
@@ -0,0 +1,89 @@
+package com.olvera.foodApp.cart.repository;
+
+import com.olvera.foodApp.auth_users.entity.User;
+import com.olvera.foodApp.cart.entity.Cart;
+import com.olvera.foodApp.cart.entity.CartItem;
+import com.olvera.foodApp.menu.entity.Menu;
+import com.olvera.foodApp.support.PostgresServiceTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The native cart inserts draw ids with nextval while Hibernate's pooled optimizer hands out ids
+ * from blocks it drew earlier. Interleaving both across more than one block must never produce
+ * the same id twice; a collision would fail the insert on the primary key.
+ */
+class SequenceIdSourcesTest extends PostgresServiceTest {
+
+    // more than one block of 50 for each source
+    private static final int ROWS = 120;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void cartItemIdsFromHibernateAndUpsertsDoNotCollide() {
+
+        Cart cart = cartRepository.save(Cart.builder().user(customer).cartItems(new ArrayList<>()).build());
+
+        for (int i = 0; i < ROWS; i++) {
+            Menu menu = menu("Menu " + i, "4.00");
+            if (i % 2 == 0) {
+                cartItemRepository.save(CartItem.builder()
+                        .cart(cart)
+                        .menu(menu)
+                        .quantity(1)
+                        .pricePerUnit(menu.getPrice())
+                        .subTotal(menu.getPrice())
+                        .build());
+            } else {
+                transactionTemplate.executeWithoutResult(status ->
+                        assertThat(cartItemRepository.upsertQuantity(customer.getId(), menu.getId(), 1)).isEqualTo(1));
+            }
+        }
+
+        assertDistinctIds("cart_items", ROWS);
+    }
+
+    @Test
+    void cartIdsFromHibernateAndInsertIfAbsentDoNotCollide() {
+
+        long before = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM carts", Long.class);
+
+        for (int i = 0; i < ROWS; i++) {
+            User user = userRepository.save(User.builder()
+                    .name("User " + i)
+                    .email("user-" + i + "-" + System.nanoTime() + "@example.com")
+                    .password("secret")
+                    .isActive(true)
+                    .build());
+            if (i % 2 == 0) {
+                cartRepository.save(Cart.builder().user(user).cartItems(new ArrayList<>()).build());
+            } else {
+                transactionTemplate.executeWithoutResult(status ->
+                        assertThat(cartRepository.insertIfAbsent(user.getId())).isEqualTo(1));
+            }
+        }
+
+        assertDistinctIds("carts", before + ROWS);
+    }
+
+    private void assertDistinctIds(String table, long expected) {
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        Long ids = jdbcTemplate.queryForObject("SELECT COUNT(DISTINCT id) FROM " + table, Long.class);
+
+        assertThat(rows).isGreaterThanOrEqualTo(expected);
+        assertThat(ids).isEqualTo(rows);
+    }
+}
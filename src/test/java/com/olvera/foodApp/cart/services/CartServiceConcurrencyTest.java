@@ -0,0 +1,160 @@
+package com.olvera.foodApp.cart.services;
+
+import com.olvera.foodApp.cart.dtos.CartSummaryDTO;
+import com.olvera.foodApp.cart.repository.CartRepository;
+import com.olvera.foodApp.menu.entity.Menu;
+import com.olvera.foodApp.support.PostgresServiceTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cart clicks from several devices at once: every add, increment and decrement is a single
+ * conditional statement, so none of them may be lost and the cart totals must match the items.
+ */
+@Import(CartServiceImpl.class)
+class CartServiceConcurrencyTest extends PostgresServiceTest {
+
+    private static final int THREADS = 8;
+
+    private static final String PRICE = "2.50";
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private ExecutorService executor;
+
+    private Menu menu;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        menu = menu("Espresso", PRICE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentFirstAddsCreateOneCart() throws Exception {
+
+        runConcurrently(THREADS, 1, () -> cartService.addItemToCart(cartDTO(menu, 1)));
+
+        Integer carts = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM carts WHERE user_id = ?", Integer.class, customer.getId());
+
+        assertThat(carts).isEqualTo(1);
+        assertQuantityAndTotals(THREADS);
+    }
+
+    @Test
+    void concurrentAddsAreNotLost() throws Exception {
+        cartService.addItemToCart(cartDTO(menu, 10));
+
+        runConcurrently(THREADS, 25, () -> cartService.addItemToCart(cartDTO(menu, 1)));
+
+        assertQuantityAndTotals(10 + THREADS * 25);
+    }
+
+    @Test
+    void concurrentIncrementsAndDecrementsAreNotLost() throws Exception {
+        cartService.addItemToCart(cartDTO(menu, 100));
+
+        int incrementThreads = 6;
+        int decrementThreads = THREADS - incrementThreads;
+        int clicksPerThread = 40;
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < incrementThreads; i++) {
+            tasks.add(() -> cartService.incrementItem(menu.getId()));
+        }
+        for (int i = 0; i < decrementThreads; i++) {
+            tasks.add(() -> cartService.decrementItem(menu.getId()));
+        }
+        runConcurrently(tasks, clicksPerThread);
+
+        assertQuantityAndTotals(100 + (incrementThreads - decrementThreads) * clicksPerThread);
+    }
+
+    @Test
+    void decrementToZeroRemovesTheItem() throws Exception {
+        cartService.addItemToCart(cartDTO(menu, THREADS));
+
+        runConcurrently(THREADS, 1, () -> cartService.decrementItem(menu.getId()));
+
+        Integer items = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM cart_items ci JOIN carts c ON c.id = ci.cart_id WHERE c.user_id = ?",
+                Integer.class, customer.getId());
+
+        assertThat(items).isZero();
+        assertTotals(0);
+    }
+
+    private void assertQuantityAndTotals(int expectedQuantity) {
+
+        Integer quantity = jdbcTemplate.queryForObject(
+                "SELECT ci.quantity FROM cart_items ci JOIN carts c ON c.id = ci.cart_id " +
+                        "WHERE c.user_id = ? AND ci.menu_id = ?",
+                Integer.class, customer.getId(), menu.getId());
+
+        assertThat(quantity).isEqualTo(expectedQuantity);
+        assertTotals(expectedQuantity);
+    }
+
+    private void assertTotals(int expectedQuantity) {
+
+        CartSummaryDTO summary = cartRepository.findSummaryByUserId(customer.getId()).orElseThrow();
+
+        assertThat(summary.getItemCount()).isEqualTo(expectedQuantity);
+        assertThat(summary.getTotalAmount()).isEqualByComparingTo(new BigDecimal(PRICE).multiply(BigDecimal.valueOf(expectedQuantity)));
+        assertThat(cartRepository.findCartIdsWithDriftedTotals()).isEmpty();
+    }
+
+    private void runConcurrently(int threads, int clicksPerThread, Runnable click) throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            tasks.add(click);
+        }
+        runConcurrently(tasks, clicksPerThread);
+    }
+
+    // all threads start together so their statements overlap; any failure fails the test
+    private void runConcurrently(List<Runnable> tasks, int clicksPerThread) throws Exception {
+
+        CountDownLatch start = new CountDownLatch(1);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (Runnable task : tasks) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < clicksPerThread; i++) {
+                    task.run();
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.olvera.foodApp.cart.services;
+
+import com.olvera.foodApp.cart.dtos.CartItemUpdateDTO;
+import com.olvera.foodApp.cart.dtos.CartSummaryDTO;
+import com.olvera.foodApp.cart.dtos.CartUpdateDTO;
+import com.olvera.foodApp.cart.repository.CartRepository;
+import com.olvera.foodApp.menu.entity.Menu;
+import com.olvera.foodApp.order.services.OrderService;
+import com.olvera.foodApp.order.services.OrderServiceImpl;
+import com.olvera.foodApp.support.PostgresServiceTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The totals stored on the cart row move by deltas; after every kind of mutation they must still
+ * equal what the items add up to, the same check CartTotalsChecker runs in production.
+ */
+@Import({CartServiceImpl.class, OrderServiceImpl.class, CartTotalsChecker.class})
+class CartTotalsTest extends PostgresServiceTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    private Menu pizza;
+
+    private Menu salad;
+
+    @BeforeEach
+    void setUp() {
+        pizza = menu("Pizza", "12.50");
+        salad = menu("Salad", "7.25");
+    }
+
+    @Test
+    void addIncrementAndDecrementKeepTheTotals() {
+
+        cartService.addItemToCart(cartDTO(pizza, 2));
+        assertTotals("25.00", 2);
+
+        cartService.addItemToCart(cartDTO(salad, 1));
+        cartService.addItemToCart(cartDTO(pizza, 1));
+        assertTotals("44.75", 4);
+
+        cartService.incrementItem(salad.getId());
+        assertTotals("52.00", 5);
+
+        cartService.decrementItem(pizza.getId());
+        assertTotals("39.50", 4);
+
+        cartService.decrementItem(salad.getId());
+        cartService.decrementItem(salad.getId());
+        assertTotals("25.00", 2);
+    }
+
+    @Test
+    void updateAndRemoveKeepTheTotals() {
+
+        cartService.addItemToCart(cartDTO(pizza, 1));
+        cartService.addItemToCart(cartDTO(salad, 1));
+
+        cartService.updateCart(cartUpdateDTO(target(pizza, 3), target(salad, 2)));
+        assertTotals("52.00", 5);
+
+        cartService.updateCart(cartUpdateDTO(target(salad, 0)));
+        assertTotals("37.50", 3);
+
+        cartService.addItemToCart(cartDTO(salad, 4));
+        assertTotals("66.50", 7);
+
+        cartService.removeItem(cartItemIdOf(pizza));
+        assertTotals("29.00", 4);
+
+        cartService.clearShoppingCart();
+        assertTotals("0", 0);
+    }
+
+    @Test
+    void updateCreatesTheCartWithItsTotals() {
+
+        cartService.updateCart(cartUpdateDTO(target(pizza, 2), target(salad, 1)));
+        assertTotals("32.25", 3);
+    }
+
+    @Test
+    void checkoutResetsTheTotals() {
+
+        cartService.addItemToCart(cartDTO(pizza, 2));
+        cartService.addItemToCart(cartDTO(salad, 3));
+        assertTotals("46.75", 5);
+
+        orderService.placeOrderFromCart();
+        assertTotals("0", 0);
+
+        cartService.addItemToCart(cartDTO(salad, 1));
+        assertTotals("7.25", 1);
+    }
+
+    private void assertTotals(String expectedAmount, int expectedCount) {
+
+        CartSummaryDTO summary = cartRepository.findSummaryByUserId(customer.getId()).orElseThrow();
+
+        assertThat(summary.getTotalAmount()).isEqualByComparingTo(expectedAmount);
+        assertThat(summary.getItemCount()).isEqualTo(expectedCount);
+        assertThat(cartRepository.findCartIdsWithDriftedTotals()).isEmpty();
+    }
+
+    private Long cartItemIdOf(Menu menu) {
+        return jdbcTemplate.queryForObject(
+                "SELECT ci.id FROM cart_items ci JOIN carts c ON c.id = ci.cart_id WHERE c.user_id = ? AND ci.menu_id = ?",
+                Long.class, customer.getId(), menu.getId());
+    }
+
+    private CartItemUpdateDTO target(Menu menu, int quantity) {
+        CartItemUpdateDTO item = new CartItemUpdateDTO();
+        item.setMenuId(menu.getId());
+        item.setQuantity(quantity);
+        return item;
+    }
+
+    private CartUpdateDTO cartUpdateDTO(CartItemUpdateDTO... items) {
+        CartUpdateDTO cartUpdateDTO = new CartUpdateDTO();
+        cartUpdateDTO.setItems(List.of(items));
+        return cartUpdateDTO;
+    }
+}
@@ -0,0 +1,154 @@
+package com.olvera.foodApp.menu.services;
+
+import com.olvera.foodApp.category.entity.Category;
+import com.olvera.foodApp.menu.entity.Menu;
+import com.olvera.foodApp.menu.repository.MenuRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency of {@link MenuSearchIndex} against the previous
+ * {@code lower(name) LIKE '%term%' OR lower(description) LIKE '%term%'} query at 10k and 100k
+ * menus. The query runs on an in-memory H2 database, so its numbers are a lower bound for
+ * Postgres, which also has to fetch the rows over the network.
+ *
+ * <p>Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.olvera.foodApp.menu.services.MenuSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MenuSearchBenchmark {
+
+    private static final String[] DISHES = {"pizza", "burger", "salad", "pasta", "taco", "curry", "ramen", "soup",
+            "sandwich", "burrito", "risotto", "noodles", "wrap", "steak", "dumplings", "omelette"};
+
+    private static final String[] INGREDIENTS = {"chicken", "beef", "mushroom", "tomato", "cheddar", "basil",
+            "spinach", "shrimp", "pepperoni", "avocado", "bacon", "tofu", "garlic", "chili", "lemon", "pesto"};
+
+    private static final String[] STYLES = {"classic", "spicy", "smoked", "grilled", "crispy", "creamy",
+            "roasted", "house", "vegan", "double"};
+
+    @Param({"10000", "100000"})
+    private int menuCount;
+
+    @Param({"mushroom", "chick", "ushro"})
+    private String term;
+
+    private MenuSearchIndex index;
+
+    private Connection connection;
+
+    private PreparedStatement likeQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+
+        index = new MenuSearchIndex(Mockito.mock(MenuRepository.class));
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:menu_search_" + menuCount + ";DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE menus (id BIGINT PRIMARY KEY, name VARCHAR(255), " +
+                    "description VARCHAR(1000), category_id BIGINT)");
+        }
+
+        Random random = new Random(42);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO menus (id, name, description, category_id) VALUES (?, ?, ?, ?)")) {
+
+            for (long id = 1; id <= menuCount; id++) {
+                String name = pick(random, STYLES) + " " + pick(random, INGREDIENTS) + " " + pick(random, DISHES);
+                String description = "Made with " + pick(random, INGREDIENTS) + ", " + pick(random, INGREDIENTS)
+                        + " and " + pick(random, INGREDIENTS);
+                long categoryId = 1 + random.nextInt(20);
+
+                index.index(Menu.builder()
+                        .id(id)
+                        .name(name)
+                        .description(description)
+                        .category(Category.builder().id(categoryId).build())
+                        .build());
+
+                insert.setLong(1, id);
+                insert.setString(2, name);
+                insert.setString(3, description);
+                insert.setLong(4, categoryId);
+                insert.addBatch();
+                if (id % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        likeQuery = connection.prepareStatement(
+                "SELECT id FROM menus WHERE lower(name) LIKE ? OR lower(description) LIKE ? ORDER BY id DESC");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE menus");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Long> likeQuery() throws SQLException {
+        String pattern = "%" + term + "%";
+        likeQuery.setString(1, pattern);
+        likeQuery.setString(2, pattern);
+
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet resultSet = likeQuery.executeQuery()) {
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public List<Long> searchIndex() {
+        return index.search(term, null);
+    }
+
+    private static String pick(Random random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MenuSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
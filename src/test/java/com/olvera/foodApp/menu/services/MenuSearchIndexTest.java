@@ -0,0 +1,125 @@
+package com.olvera.foodApp.menu.services;
+
+import com.olvera.foodApp.category.entity.Category;
+import com.olvera.foodApp.menu.entity.Menu;
+import com.olvera.foodApp.menu.repository.MenuRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MenuSearchIndexTest {
+
+    private MenuRepository menuRepository;
+
+    private MenuSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        menuRepository = mock(MenuRepository.class);
+        index = new MenuSearchIndex(menuRepository);
+
+        index.index(menu(1L, "Margherita Pizza", "Tomato, mozzarella and basil", 10L));
+        index.index(menu(2L, "Pepperoni Pizza", "Spicy salami", 10L));
+        index.index(menu(3L, "Caesar Salad", "Romaine with parmesan and pizza croutons", 20L));
+        index.index(menu(4L, "Cheeseburger", "Beef patty with cheddar", 30L));
+    }
+
+    @Test
+    void exactTermRanksNameMatchesAboveDescriptionMatches() {
+        assertThat(index.search("pizza", null)).containsExactly(2L, 1L, 3L);
+    }
+
+    @Test
+    void prefixMatchesWholeTokens() {
+        assertThat(index.search("pepp", null)).containsExactly(2L);
+        assertThat(index.search("chee", null)).containsExactly(4L);
+    }
+
+    @Test
+    void exactMatchRanksAbovePrefixMatch() {
+        index.index(menu(5L, "Cheese Fries", null, 30L));
+
+        assertThat(index.search("cheese", null)).containsExactly(5L, 4L);
+    }
+
+    @Test
+    void substringMatchesGoThroughTrigrams() {
+        assertThat(index.search("eroni", null)).containsExactly(2L);
+        assertThat(index.search("burg", null)).containsExactly(4L);
+        assertThat(index.search("zzarel", null)).containsExactly(1L);
+    }
+
+    @Test
+    void shortTermsMatchSubstringsWithoutTrigrams() {
+        assertThat(index.search("ae", null)).containsExactly(3L);
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        assertThat(index.search("pizza spicy", null)).containsExactly(2L);
+        assertThat(index.search("pizza burger", null)).isEmpty();
+    }
+
+    @Test
+    void termsAreCaseAndPunctuationInsensitive() {
+        assertThat(index.search("  PIZZA, Margherita! ", null)).containsExactly(1L);
+    }
+
+    @Test
+    void categoryFilterRestrictsResults() {
+        assertThat(index.search("pizza", 20L)).containsExactly(3L);
+        assertThat(index.search("pizza", 99L)).isEmpty();
+    }
+
+    @Test
+    void updatesAndRemovalsAreVisibleImmediately() {
+        index.index(menu(2L, "Diavola", "Spicy salami", 10L));
+        assertThat(index.search("pepperoni", null)).isEmpty();
+        assertThat(index.search("diavola", null)).containsExactly(2L);
+
+        index.remove(1L);
+        assertThat(index.search("margherita", null)).isEmpty();
+        assertThat(index.search("mozz", null)).isEmpty();
+
+        index.removeCategory(10L);
+        assertThat(index.search("diavola", null)).isEmpty();
+        assertThat(index.search("pizza", null)).containsExactly(3L);
+    }
+
+    @Test
+    void rebuildReplaysWritesMadeWhileTheTableWasRead() {
+        List<Object[]> documents = new ArrayList<>();
+        documents.add(new Object[]{1L, "Margherita Pizza", "Tomato, mozzarella and basil", 10L});
+        documents.add(new Object[]{4L, "Cheeseburger", "Beef patty with cheddar", 30L});
+
+        // the snapshot was read before these writes reached the table
+        when(menuRepository.findSearchDocuments()).thenAnswer(invocation -> {
+            index.index(menu(6L, "Tiramisu", "Coffee dessert", 40L));
+            index.remove(4L);
+            return documents;
+        });
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("tiramisu", null)).containsExactly(6L);
+        assertThat(index.search("cheeseburger", null)).isEmpty();
+        assertThat(index.search("pepperoni", null)).isEmpty();
+        assertThat(index.search("pizza", null)).containsExactly(1L);
+    }
+
+    private static Menu menu(Long id, String name, String description, Long categoryId) {
+        return Menu.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .category(Category.builder().id(categoryId).build())
+                .build();
+    }
+}
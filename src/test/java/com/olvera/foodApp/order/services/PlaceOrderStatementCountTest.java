@@ -0,0 +1,112 @@
+package com.olvera.foodApp.order.services;
+
+import com.olvera.foodApp.cart.entity.Cart;
+import com.olvera.foodApp.cart.entity.CartItem;
+import com.olvera.foodApp.cart.repository.CartItemRepository;
+import com.olvera.foodApp.cart.repository.CartRepository;
+import com.olvera.foodApp.menu.entity.Menu;
+import com.olvera.foodApp.order.repository.OrderItemRepository;
+import com.olvera.foodApp.support.PostgresServiceTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checkout must cost the same number of JDBC statements whatever the size of the cart: the
+ * order items go out in one batch and the cart is emptied with one delete.
+ */
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(OrderServiceImpl.class)
+class PlaceOrderStatementCountTest extends PostgresServiceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Cart cart;
+
+    private List<Menu> menus;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        cart = cartRepository.save(Cart.builder().user(customer).cartItems(new ArrayList<>()).build());
+
+        menus = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            menus.add(menu("Menu " + i, String.valueOf(5 + i)));
+        }
+
+        // the first checkout also initializes the id pools of the sequences, keep it out of the counts
+        fillCart(1);
+        orderService.placeOrderFromCart();
+    }
+
+    // one test on purpose: all orders together stay inside the first id pool of the sequences,
+    // so no sequence fetch lands in one of the measured checkouts
+    @Test
+    void statementCountDoesNotDependOnTheNumberOfItems() {
+
+        long itemsBefore = orderItemRepository.count();
+
+        long oneItem = statementsToPlaceOrderOf(1);
+        long manyItems = statementsToPlaceOrderOf(25);
+
+        assertThat(manyItems).isEqualTo(oneItem);
+        assertThat(orderItemRepository.count() - itemsBefore).isEqualTo(26);
+        assertThat(cartItemRepository.count()).isZero();
+    }
+
+    private long statementsToPlaceOrderOf(int items) {
+        fillCart(items);
+
+        statistics.clear();
+        orderService.placeOrderFromCart();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void fillCart(int items) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<CartItem> cartItems = new ArrayList<>();
+            for (Menu menu : menus.subList(0, items)) {
+                cartItems.add(CartItem.builder()
+                        .cart(cart)
+                        .menu(menu)
+                        .quantity(2)
+                        .pricePerUnit(menu.getPrice())
+                        .subTotal(menu.getPrice().multiply(BigDecimal.valueOf(2)))
+                        .build());
+            }
+            cartItemRepository.saveAll(cartItems);
+        });
+    }
+}
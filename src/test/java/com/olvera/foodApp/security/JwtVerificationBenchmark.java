@@ -0,0 +1,103 @@
+package com.olvera.foodApp.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a Bearer token: the previous path (a new parser and a full
+ * signature check for the username, the validity check and the expiry check) against a single
+ * verification with the shared parser, and against {@link JwtUtils#verifyToken} served from the
+ * verified-token cache.
+ *
+ * <p>Run with {@code ./mvnw test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.olvera.foodApp.security.JwtVerificationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-of-at-least-256-bits";
+
+    private static final String EMAIL = "customer@example.com";
+
+    private SecretKey key;
+
+    private JwtUtils jwtUtils;
+
+    private JwtParser sharedParser;
+
+    private String token;
+
+    private UserDetails userDetails;
+
+    @Setup
+    public void setUp() {
+        key = new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secreteJwtString", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxSize", 10_000L);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        sharedParser = (JwtParser) ReflectionTestUtils.getField(jwtUtils, "jwtParser");
+        token = jwtUtils.generateToken(EMAIL);
+        userDetails = User.withUsername(EMAIL).password("").authorities(List.of()).build();
+    }
+
+    @Benchmark
+    public boolean previousPath() {
+        // getUsernameFromToken, then isTokenValid -> getUsernameFromToken + isTokenExpired
+        String username = parseWithNewParser(token).getSubject();
+        boolean valid = parseWithNewParser(token).getSubject().equals(userDetails.getUsername())
+                && !parseWithNewParser(token).getExpiration().before(new Date());
+        return username != null && valid;
+    }
+
+    @Benchmark
+    public boolean verifyOnce() {
+        Claims claims = sharedParser.parseSignedClaims(token).getPayload();
+        return jwtUtils.isTokenValid(claims, userDetails);
+    }
+
+    @Benchmark
+    public boolean verifyOnceCached() {
+        Claims claims = jwtUtils.verifyToken(token);
+        return jwtUtils.isTokenValid(claims, userDetails);
+    }
+
+    private Claims parseWithNewParser(String token) {
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtVerificationBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,97 @@
+package com.olvera.foodApp.support;
+
+import com.olvera.foodApp.auth_users.entity.User;
+import com.olvera.foodApp.auth_users.repository.UserRepository;
+import com.olvera.foodApp.auth_users.services.UserService;
+import com.olvera.foodApp.cart.dtos.CartDTO;
+import com.olvera.foodApp.cart.services.CartWriteBehindStore;
+import com.olvera.foodApp.config.ModelMapperConfig;
+import com.olvera.foodApp.email_notification.services.NotificationService;
+import com.olvera.foodApp.menu.entity.Menu;
+import com.olvera.foodApp.menu.repository.MenuRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.thymeleaf.TemplateEngine;
+
+import java.math.BigDecimal;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * Base of the cart and checkout service tests. They need Postgres itself (native upserts,
+ * ON CONFLICT, row locks), so they run against a container and are skipped without Docker.
+ * Each test runs without a surrounding transaction, like a request, as a freshly created
+ * customer who is logged in through the mocked UserService. Subclasses @Import the services
+ * they exercise.
+ */
+@DataJpaTest(properties = "base.payment.link=http://localhost/payment/")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(ModelMapperConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public abstract class PostgresServiceTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @MockitoBean
+    protected UserService userService;
+
+    @MockitoBean
+    protected CartWriteBehindStore cartWriteBehindStore;
+
+    @MockitoBean
+    protected NotificationService notificationService;
+
+    @MockitoBean
+    protected TemplateEngine templateEngine;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected MenuRepository menuRepository;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    protected User customer;
+
+    @BeforeEach
+    void logInCustomer() {
+        customer = userRepository.save(User.builder()
+                .name("Customer")
+                .email("customer-" + System.nanoTime() + "@example.com")
+                .password("secret")
+                .address("1 Main Street")
+                .isActive(true)
+                .build());
+
+        when(userService.getCurrentLoggedInUser()).thenReturn(customer);
+        when(userService.getCurrentLoggedInUserId()).thenReturn(customer.getId());
+        when(userService.getCurrentLoggedInUserForUpdate()).thenReturn(customer);
+    }
+
+    protected Menu menu(String name, String price) {
+        return menuRepository.save(Menu.builder().name(name).price(new BigDecimal(price)).build());
+    }
+
+    protected static CartDTO cartDTO(Menu menu, int quantity) {
+        CartDTO cartDTO = new CartDTO();
+        cartDTO.setMenuId(menu.getId());
+        cartDTO.setQuantity(quantity);
+        return cartDTO;
+    }
+}